@@ -0,0 +1,64 @@
+package com.aiquiz.playwithai.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-node helpers of AiService, one at a time, over the benchmark corpus
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AiHelpersBenchmark {
+
+    @Param({"opening", "midgame", "forced-win"})
+    public String category;
+
+    private AiService aiService;
+    private Position[] positions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(), 0, 0);
+        positions = BenchmarkCorpus.positions(BenchmarkCorpus.load(category, "hard"));
+    }
+
+    private Position nextPosition() {
+        Position position = positions[next];
+        next = (next + 1) % positions.length;
+        return position;
+    }
+
+    @Benchmark
+    public int checkWinner() {
+        return aiService.checkWinner(nextPosition());
+    }
+
+    @Benchmark
+    public int evaluatePosition() {
+        return aiService.evaluatePosition(nextPosition());
+    }
+
+    @Benchmark
+    public int countWinningThreats() {
+        Position position = nextPosition();
+        return aiService.countWinningThreats(position.mask(AiService.AI), position.mask(AiService.HUMAN));
+    }
+}
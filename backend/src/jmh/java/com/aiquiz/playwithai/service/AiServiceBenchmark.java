@@ -0,0 +1,59 @@
+package com.aiquiz.playwithai.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+import com.aiquiz.playwithai.model.BoardResponse;
+
+/**
+ * makeAiMove per difficulty over the benchmark corpus.
+ * The tablebase and transposition table are off so every call measures a full search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AiServiceBenchmark {
+
+    private static final long NO_BUDGET_MS = 60_000; // Depth caps, not the clock, end every search
+
+    @Param({"easy", "medium", "hard"})
+    public String difficulty;
+
+    @Param({"opening", "midgame", "forced-win"})
+    public String category;
+
+    private AiService aiService;
+    private BoardRequest[] requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(),
+                                  NO_BUDGET_MS, NO_BUDGET_MS);
+        requests = BenchmarkCorpus.load(category, difficulty).toArray(new BoardRequest[0]);
+    }
+
+    @Benchmark
+    public BoardResponse makeAiMove() {
+        BoardRequest request = requests[next];
+        next = (next + 1) % requests.length;
+        return aiService.makeAiMove(request);
+    }
+}
@@ -0,0 +1,59 @@
+package com.aiquiz.playwithai.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+
+/**
+ * Loads the committed benchmark positions (src/jmh/resources/positions.txt) for one category.
+ * The AI plays "O" and is to move in every position.
+ */
+final class BenchmarkCorpus {
+
+    private BenchmarkCorpus() {
+    }
+
+    static List<BoardRequest> load(String category, String difficulty) throws IOException {
+        List<BoardRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                BenchmarkCorpus.class.getResourceAsStream("/positions.txt"), StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                String[] fields = line.replaceAll("#.*", "").trim().split("\\s+");
+                if (fields.length == 4 && fields[0].equals(category)) {
+                    requests.add(new BoardRequest(board(fields[1]), "O", difficulty, moves(fields[2]), moves(fields[3])));
+                }
+            }
+        }
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("No benchmark positions for category " + category);
+        }
+        return requests;
+    }
+
+    static Position[] positions(List<BoardRequest> requests) {
+        Position[] positions = new Position[requests.size()];
+        for (int i = 0; i < positions.length; i++) {
+            BoardRequest request = requests.get(i);
+            positions[i] = AiService.toPosition(request.getBoard(), "O", "X", request.getAiMoves(), request.getPlayerMoves());
+        }
+        return positions;
+    }
+
+    private static List<String> board(String cells) {
+        List<String> board = new ArrayList<>();
+        for (char c : cells.toCharArray()) {
+            board.add(c == '.' ? null : String.valueOf(c));
+        }
+        return board;
+    }
+
+    private static List<Integer> moves(String field) {
+        return field.equals("-") ? List.of() : Arrays.stream(field.split(",")).map(Integer::valueOf).toList();
+    }
+}
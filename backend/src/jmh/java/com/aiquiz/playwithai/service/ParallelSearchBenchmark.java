@@ -0,0 +1,63 @@
+package com.aiquiz.playwithai.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full-depth "hard" searches with the root split across 1, 2, 4 and 8 threads.
+ * parallelism=1 is the serial search; compare its average time with the others on a
+ * multi-core host for the speedup. The transposition table is off so runs are repeatable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+    private static final long NO_BUDGET_MS = 60_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"opening", "midgame"})
+    public String category;
+
+    private AiService aiService;
+    private Position[] positions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(), MctsEngine.disabled(),
+                                  NO_BUDGET_MS, NO_BUDGET_MS, parallelism, 6);
+        positions = BenchmarkCorpus.positions(BenchmarkCorpus.load(category, "hard"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        aiService.shutdown();
+    }
+
+    @Benchmark
+    public int chooseMove() {
+        Position position = positions[next];
+        next = (next + 1) % positions.length;
+        return aiService.chooseMove(position, "hard", null).moveIndex;
+    }
+}
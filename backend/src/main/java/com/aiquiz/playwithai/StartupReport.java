@@ -0,0 +1,72 @@
+package com.aiquiz.playwithai;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures how long the app took to become ready and whether CDS and Spring AOT were in use.
+ * With startup.report.file set the numbers are written there as JSON; with startup.report.exit
+ * the app then shuts down, which is how the "startup" Maven profile compares runs.
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    private final ObjectMapper objectMapper;
+    private final String reportFile;
+    private final boolean exitAfterReport;
+    private volatile long startupMs = -1;
+
+    @Autowired
+    public StartupReport(ObjectMapper objectMapper,
+                         @Value("${startup.report.file:}") String reportFile,
+                         @Value("${startup.report.exit:false}") boolean exitAfterReport) {
+        this.objectMapper = objectMapper;
+        this.reportFile = reportFile;
+        this.exitAfterReport = exitAfterReport;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) throws IOException {
+        startupMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("jvmUptimeMs", startupMs);
+        report.put("contextStartupMs", event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : null);
+        report.put("loadedClasses", ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+        report.put("cds", ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                                           .anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile")));
+        report.put("aot", AotDetector.useGeneratedArtifacts());
+        report.put("javaVersion", Runtime.version().toString());
+        log.info("Startup report: {}", report);
+
+        if (reportFile != null && !reportFile.isBlank()) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(Path.of(reportFile).toFile(), report);
+        }
+        if (exitAfterReport) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    /**
+     * JVM uptime when the app became ready, or -1 before that
+     */
+    public long getStartupMs() {
+        return startupMs;
+    }
+}
@@ -0,0 +1,33 @@
+package com.aiquiz.playwithai.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.aiquiz.playwithai.service.AiBusyException;
+import com.aiquiz.playwithai.service.LeaderboardBusyException;
+
+/**
+ * Turns a saturated AI pool or a full leaderboard write-behind queue into 429 Too Many Requests with a Retry-After header
+ */
+@RestControllerAdvice
+public class AiBusyHandler {
+
+    @ExceptionHandler(AiBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleBusy(AiBusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(LeaderboardBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleLeaderboardBusy(LeaderboardBusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(Map.of("error", e.getMessage()));
+    }
+}
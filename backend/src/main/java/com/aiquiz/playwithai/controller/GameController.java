@@ -1,27 +1,58 @@
 package com.aiquiz.playwithai.controller;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.aiquiz.playwithai.StartupReport;
 import com.aiquiz.playwithai.model.BoardRequest;
 import com.aiquiz.playwithai.model.BoardResponse;
-import com.aiquiz.playwithai.service.AiService;
+import com.aiquiz.playwithai.service.AiBatchService;
+import com.aiquiz.playwithai.service.AiMoveCache;
+import com.aiquiz.playwithai.service.AiMoveCoalescer;
+import com.aiquiz.playwithai.service.AiWarmup;
+import com.aiquiz.playwithai.service.TranspositionTable;
 
 @RestController
 @RequestMapping("/api/game")
 @CrossOrigin(origins = {"https://endless-tic-tac-toe-puce.vercel.app", "http://localhost:3000"}) // allow requests from deployed frontend and local dev
 public class GameController {
 
-    private final AiService aiService;
+    private final AiMoveCoalescer aiMoveCoalescer;
+    private final AiBatchService aiBatchService;
+    private final AiMoveCache aiMoveCache;
+    private final TranspositionTable transpositionTable;
+    private final AiWarmup aiWarmup;
+    private final StartupReport startupReport;
+    private final long readyWaitMs;
+    private final long moveMaxAgeSeconds;
 
     @Autowired
-    public GameController(AiService aiService) {
-        this.aiService = aiService;
+    public GameController(AiMoveCoalescer aiMoveCoalescer, AiBatchService aiBatchService, AiMoveCache aiMoveCache,
+                          TranspositionTable transpositionTable, AiWarmup aiWarmup, StartupReport startupReport,
+                          @Value("${ai.warmup.ready-wait-ms:20000}") long readyWaitMs,
+                          @Value("${ai.move-cache.max-age-seconds:2592000}") long moveMaxAgeSeconds) {
+        this.aiMoveCoalescer = aiMoveCoalescer;
+        this.aiBatchService = aiBatchService;
+        this.aiMoveCache = aiMoveCache;
+        this.transpositionTable = transpositionTable;
+        this.aiWarmup = aiWarmup;
+        this.startupReport = startupReport;
+        this.readyWaitMs = readyWaitMs;
+        this.moveMaxAgeSeconds = moveMaxAgeSeconds;
     }
 
     /**
@@ -31,21 +62,83 @@ public class GameController {
      */
     @PostMapping("/aiMove")
     public BoardResponse getAiMove(@RequestBody BoardRequest boardRequest) {
-        // AiService handles AI move logic based on difficulty
+        // AiService handles AI move logic based on difficulty, on the AI pool (429 if it is full);
+        // identical requests in flight at the same time share one search
         
-        return aiService.makeAiMove(boardRequest);
+        try {
+            return aiMoveCoalescer.call(boardRequest);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
     
+    /**
+     * Cacheable form of /aiMove for "medium" and "hard": the whole state is in the token
+     * (see AiMoveToken), so browsers and CDNs can keep the answer. A request whose
+     * If-None-Match carries the ETag gets 304 Not Modified. Answers that could come out
+     * differently next time (see AiMoveCache) are sent with no-store.
+     */
+    @GetMapping("/aiMove/{token}")
+    public ResponseEntity<BoardResponse> getCachedAiMove(@PathVariable String token) {
+        try {
+            AiMoveCache.Lookup lookup = aiMoveCache.move(token);
+            if (!lookup.cacheable()) {
+                return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(lookup.response());
+            }
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(moveMaxAgeSeconds, TimeUnit.SECONDS).cachePublic().immutable())
+                .eTag(AiMoveCache.eTag(token, lookup.response()))
+                .body(lookup.response());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Batch endpoint for bots, replays and prefetching.
+     * Returns one response per request, in order; items that fail carry an error instead of a move.
+     */
+    @PostMapping("/aiMoves")
+    public List<BoardResponse> getAiMoves(@RequestBody List<BoardRequest> boardRequests) {
+        try {
+            return aiBatchService.makeAiMoves(boardRequests);
+        } catch (IllegalArgumentException e) {
+            // Too many positions; a bad position only fails its own item
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * Health check endpoint to warm up the service.
      * Render free tier goes to sleep after inactivity, this wakes it up.
+     * Waits (on a virtual thread) until the AI warm-up has run, so the first move after it is fast;
+     * answers 503 if the warm-up is still going after ai.warmup.ready-wait-ms.
      */
     @GetMapping("/ready")
-    public java.util.Map<String, Object> checkReady() {
+    public ResponseEntity<java.util.Map<String, Object>> checkReady() {
+        boolean warm = aiWarmup.awaitReady(readyWaitMs);
         java.util.Map<String, Object> response = new java.util.HashMap<>();
-        response.put("status", "ready");
-        response.put("message", "AI is ready to play!");
+        response.put("status", warm ? "ready" : "warming");
+        response.put("message", warm ? "AI is ready to play!" : "AI is still warming up");
         response.put("timestamp", java.time.Instant.now().toString());
+        response.put("startupMs", startupReport.getStartupMs());
+        response.put("warmupMs", aiWarmup.getWarmupMs());
+        response.put("warmupSearches", aiWarmup.getSearched());
+        return ResponseEntity.status(warm ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    /**
+     * Search engine statistics: size and hit rate of the shared transposition table.
+     */
+    @GetMapping("/engineStats")
+    public java.util.Map<String, Object> getEngineStats() {
+        java.util.Map<String, Object> response = new java.util.HashMap<>();
+        response.put("ttEntries", transpositionTable.capacity());
+        response.put("ttProbes", transpositionTable.probes());
+        response.put("ttHits", transpositionTable.hits());
+        response.put("ttHitRate", transpositionTable.hitRate());
         return response;
     }
 }
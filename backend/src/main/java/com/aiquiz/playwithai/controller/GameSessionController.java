@@ -0,0 +1,61 @@
+package com.aiquiz.playwithai.controller;
+
+import java.util.NoSuchElementException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.aiquiz.playwithai.model.SessionMoveRequest;
+import com.aiquiz.playwithai.model.SessionResponse;
+import com.aiquiz.playwithai.model.SessionStartRequest;
+import com.aiquiz.playwithai.service.GameSessionService;
+
+@RestController
+@RequestMapping("/api/game/session")
+@CrossOrigin(origins = {"https://endless-tic-tac-toe-puce.vercel.app", "http://localhost:3000"})
+public class GameSessionController {
+
+    private final GameSessionService sessionService;
+
+    @Autowired
+    public GameSessionController(GameSessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
+    /**
+     * Start a game. Returns the game id (and the AI's first move if it starts).
+     */
+    @PostMapping
+    public SessionResponse start(@RequestBody SessionStartRequest request) {
+        return sessionService.start(request.getDifficulty(), request.getAiMark(), request.isAiStarts());
+    }
+
+    /**
+     * Send the human's move; the response carries the AI's reply.
+     */
+    @PostMapping("/{gameId}/move")
+    public SessionResponse move(@PathVariable String gameId, @RequestBody SessionMoveRequest request) {
+        try {
+            return sessionService.play(gameId, request.getIndex());
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{gameId}")
+    public void end(@PathVariable String gameId) {
+        sessionService.end(gameId);
+    }
+}
@@ -0,0 +1,30 @@
+package com.aiquiz.playwithai.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the game WebSocket next to the REST endpoints, with the same allowed origins.
+ * Tomcat's per-connection buffer sizes are context parameters in application.properties;
+ * the handler sets each connection's message size limit and idle timeout.
+ */
+@Configuration
+@EnableWebSocket
+public class GameWebSocketConfig implements WebSocketConfigurer {
+
+    private final GameWebSocketHandler handler;
+
+    @Autowired
+    public GameWebSocketConfig(GameWebSocketHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(handler, "/ws/game")
+                .setAllowedOrigins("https://endless-tic-tac-toe-puce.vercel.app", "http://localhost:3000");
+    }
+}
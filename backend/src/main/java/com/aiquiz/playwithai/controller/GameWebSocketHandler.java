@@ -0,0 +1,179 @@
+package com.aiquiz.playwithai.controller;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.aiquiz.playwithai.model.SessionResponse;
+import com.aiquiz.playwithai.service.AiBusyException;
+import com.aiquiz.playwithai.service.GameSessionService;
+
+import jakarta.websocket.Session;
+
+/**
+ * One WebSocket per server-side game at /ws/game?difficulty=hard&aiMark=O&aiStarts=true.
+ *
+ * Client to server: the human's cell index as text, e.g. "4".
+ * Server to client:
+ *   "game &lt;id&gt;"            once, when the game is created
+ *   "move &lt;cell&gt;"          the AI's move (-1 if it had none), with " over &lt;X|O&gt;" added when the game ends
+ *   "busy &lt;seconds&gt;"       the AI pool is full; resend the move after that long. If the AI was
+ *                         to open the game, the socket is then closed with 1013 (try again later)
+ *                         and no game exists; reconnect after that long
+ *   "error &lt;message&gt;"      the move was not accepted
+ *
+ * Moves are searched on the AI compute pool and the reply is pushed when the search
+ * finishes, so no thread waits on a connection and idle connections cost only their buffers.
+ */
+@Component
+public class GameWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GameWebSocketHandler.class);
+
+    private static final String GAME_ID = "gameId";
+    private static final String OUT = "out";
+    private static final int SEND_TIME_LIMIT_MS = 5_000;
+    private static final int SEND_BUFFER_LIMIT = 4 * 1024;
+    private static final int MESSAGE_SIZE_LIMIT = 512; // Messages are a few bytes
+
+    private final GameSessionService sessionService;
+    private final long idleTimeoutMillis;
+
+    @Autowired
+    public GameWebSocketHandler(GameSessionService sessionService,
+                                @Value("${ai.sessions.idle-timeout-minutes:30}") long idleTimeoutMinutes) {
+        this.sessionService = sessionService;
+        this.idleTimeoutMillis = idleTimeoutMinutes * 60_000L;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession connection) {
+        connection.setTextMessageSizeLimit(MESSAGE_SIZE_LIMIT);
+        connection.setBinaryMessageSizeLimit(MESSAGE_SIZE_LIMIT);
+        // Idle connections are closed after the session idle timeout, like the game behind them
+        if (connection instanceof NativeWebSocketSession nativeConnection) {
+            Session session = nativeConnection.getNativeSession(Session.class);
+            if (session != null) {
+                session.setMaxIdleTimeout(idleTimeoutMillis);
+            }
+        }
+
+        // Replies are sent from AI pool threads, so sends go through a thread-safe decorator
+        WebSocketSession out = new ConcurrentWebSocketSessionDecorator(connection, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT);
+        connection.getAttributes().put(OUT, out);
+
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(connection.getUri()).build().getQueryParams();
+        String difficulty = params.getFirst("difficulty");
+        String aiMark = params.getFirst("aiMark");
+        boolean aiStarts = Boolean.parseBoolean(params.getFirst("aiStarts"));
+
+        sessionService.startAsync(difficulty, aiMark, aiStarts).whenComplete((response, error) -> {
+            if (error != null) {
+                // Nothing was registered, so there is no game to go on with
+                replyError(out, error);
+                close(out, busy(error) != null ? CloseStatus.SERVICE_OVERLOAD : CloseStatus.SERVER_ERROR);
+                return;
+            }
+            connection.getAttributes().put(GAME_ID, response.getGameId());
+            if (!connection.isOpen()) {
+                // Closed while the AI was opening: afterConnectionClosed may not have seen the id
+                sessionService.end(response.getGameId());
+                return;
+            }
+            send(out, "game " + response.getGameId());
+            if (aiStarts) {
+                send(out, turn(response));
+            }
+        });
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession connection, TextMessage message) {
+        WebSocketSession out = (WebSocketSession) connection.getAttributes().get(OUT);
+        String gameId = (String) connection.getAttributes().get(GAME_ID);
+        if (gameId == null) {
+            send(out, "error Game is not started yet");
+            return;
+        }
+        int index;
+        try {
+            index = Integer.parseInt(message.getPayload().trim());
+        } catch (NumberFormatException e) {
+            send(out, "error Expected a cell index 0-8");
+            return;
+        }
+        reply(out, sessionService.playAsync(gameId, index), response -> send(out, turn(response)));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession connection, CloseStatus status) {
+        String gameId = (String) connection.getAttributes().get(GAME_ID);
+        if (gameId != null) {
+            sessionService.end(gameId);
+        }
+    }
+
+    private void reply(WebSocketSession out, CompletableFuture<SessionResponse> pending,
+                       Consumer<SessionResponse> onSuccess) {
+        pending.whenComplete((response, error) -> {
+            if (error == null) {
+                onSuccess.accept(response);
+            } else {
+                replyError(out, error);
+            }
+        });
+    }
+
+    private static void replyError(WebSocketSession out, Throwable error) {
+        AiBusyException busy = busy(error);
+        if (busy != null) {
+            send(out, "busy " + busy.getRetryAfterSeconds());
+        } else {
+            send(out, "error " + cause(error).getMessage());
+        }
+    }
+
+    private static AiBusyException busy(Throwable error) {
+        return cause(error) instanceof AiBusyException busy ? busy : null;
+    }
+
+    private static Throwable cause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static String turn(SessionResponse response) {
+        String move = "move " + response.getAiMove();
+        return response.isGameOver() ? move + " over " + response.getWinner() : move;
+    }
+
+    private static void close(WebSocketSession out, CloseStatus status) {
+        try {
+            out.close(status);
+        } catch (IOException e) {
+            log.debug("Could not close {}: {}", out.getId(), e.getMessage());
+        }
+    }
+
+    private static void send(WebSocketSession out, String text) {
+        try {
+            out.sendMessage(new TextMessage(text));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Could not send to {}: {}", out.getId(), e.getMessage());
+        }
+    }
+}
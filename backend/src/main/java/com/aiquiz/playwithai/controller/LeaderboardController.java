@@ -1,76 +1,159 @@
 package com.aiquiz.playwithai.controller;
 
+import com.aiquiz.playwithai.dto.LeaderboardPageResponse;
 import com.aiquiz.playwithai.dto.LeaderboardResponse;
+import com.aiquiz.playwithai.dto.LeaderboardRow;
+import com.aiquiz.playwithai.dto.RankedEntry;
 import com.aiquiz.playwithai.model.LeaderboardEntry;
 import com.aiquiz.playwithai.repository.LeaderboardRepository;
+import com.aiquiz.playwithai.repository.LeaderboardUpsertResult;
+import com.aiquiz.playwithai.service.LeaderboardExporter;
+import com.aiquiz.playwithai.service.LeaderboardIndex;
+import com.aiquiz.playwithai.service.LeaderboardSnapshot;
+import com.aiquiz.playwithai.service.LeaderboardWriteBehind;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/leaderboard")
 @CrossOrigin(origins = {"https://endless-tic-tac-toe-puce.vercel.app", "http://localhost:3000"})
 public class LeaderboardController {
 
+    private static final int MAX_PAGE = LeaderboardIndex.TOP_TRACKED;
+    private static final String VERSION_HEADER = "X-Leaderboard-Version";
+
     @Autowired
     private LeaderboardRepository repository;
 
+    @Autowired
+    private LeaderboardIndex index;
+
+    @Autowired
+    private LeaderboardSnapshot snapshot;
+
+    @Autowired
+    private LeaderboardExporter exporter;
+
+    @Autowired
+    private LeaderboardWriteBehind writeBehind;
+
     @PostMapping("/add")
     public LeaderboardResponse addEntry(@RequestBody LeaderboardEntry entry) {
-        // Check if entry with same phone number and email already exists
-        Optional<LeaderboardEntry> existingEntry = repository.findByPhoneNumberAndEmail(
-            entry.getPhoneNumber(), 
-            entry.getEmail()
+        // Waits only while the database is still starting up
+        index.awaitLoaded();
+
+        if (writeBehind.isEnabled()) {
+            // Answered from memory and written later in a batch
+            return writeBehind.submit(entry);
+        }
+
+        // Insert or update by phone number and email in one statement; the lower time is kept
+        LocalDateTime now = LocalDateTime.now();
+        LeaderboardUpsertResult result = repository.upsert(
+            entry.getName(),
+            entry.getPhoneNumber(),
+            entry.getEmail(),
+            entry.getTimeTakenMs(),
+            now
         );
-        
-        if (existingEntry.isPresent()) {
-            LeaderboardEntry existing = existingEntry.get();
-            
-            // Always update the name
-            existing.setName(entry.getName());
-            existing.setDatePlayed(LocalDateTime.now());
-            
-            // Check if new time is better (lower)
-            boolean timeUpdated = entry.getTimeTakenMs() < existing.getTimeTakenMs();
-            
-            if (timeUpdated) {
-                existing.setTimeTakenMs(entry.getTimeTakenMs());
-            }
-            
-            LeaderboardEntry savedEntry = repository.save(existing);
-            
-            String message = timeUpdated 
-                ? "Welcome back! Your new best time has been recorded!" 
-                : "Welcome back! Your previous best time is still better (" + formatTime(existing.getTimeTakenMs()) + ")";
-            
-            return new LeaderboardResponse(savedEntry, false, timeUpdated, message);
-        } else {
-            // New entry - just save it
-            entry.setDatePlayed(LocalDateTime.now());
-            LeaderboardEntry savedEntry = repository.save(entry);
-            
-            return new LeaderboardResponse(savedEntry, true, true, "Congratulations! You've been added to the leaderboard!");
+
+        LeaderboardEntry savedEntry = new LeaderboardEntry(entry.getName(), entry.getPhoneNumber(), entry.getEmail(), result.getTimeTakenMs());
+        savedEntry.setId(result.getId());
+        savedEntry.setDatePlayed(now);
+        index.update(savedEntry);
+
+        if (result.getInserted()) {
+            return LeaderboardResponse.added(savedEntry);
         }
-    }
-    
-    // Helper method to format time as mm:ss.ms
-    private String formatTime(long ms) {
-        long minutes = ms / 60000;
-        long seconds = (ms % 60000) / 1000;
-        long millis = ms % 1000;
-        return String.format("%02d:%02d.%03d", minutes, seconds, millis);
+
+        // Check if new time is better (lower). The previous time is only missing if a concurrent
+        // submission created the row after this statement started.
+        boolean timeUpdated = result.getPreviousTimeMs() != null
+            ? entry.getTimeTakenMs() < result.getPreviousTimeMs()
+            : entry.getTimeTakenMs() == result.getTimeTakenMs();
+
+        return LeaderboardResponse.returning(savedEntry, timeUpdated);
     }
 
+    // Pre-serialized from the in-memory index, only public fields; the ETag is a hash of the body, so
+    // browsers revalidate every time (no-cache) and usually get 304 with an empty body
     @GetMapping("/top")
-    public List<LeaderboardEntry> getTopScores() {
-        return repository.findTop10ByOrderByTimeTakenMsAsc();
+    public ResponseEntity<byte[]> getTopScores(@RequestParam(defaultValue = "10") int limit) {
+        int n = Math.max(0, Math.min(limit, MAX_PAGE));
+        LeaderboardSnapshot.Body body = snapshot.top(n);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache())
+            .eTag(body.eTag())
+            .header(VERSION_HEADER, body.version())
+            .body(body.json());
+    }
+
+    // Current version of the top of the board, for clients that poll before fetching /top
+    @GetMapping("/version")
+    public Map<String, Object> getTopVersion() {
+        return Map.of("version", snapshot.version());
+    }
+
+    // A player's 1-based rank and the number of players on the board
+    @GetMapping("/rank/{id}")
+    public Map<String, Object> getRank(@PathVariable long id) {
+        long rank = index.rank(id);
+        if (rank < 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown leaderboard entry");
+        }
+        return Map.of("id", id, "rank", rank, "total", index.size());
+    }
+
+    // The player plus up to radius players ranked either side of them
+    @GetMapping("/around/{id}")
+    public List<RankedEntry> getAround(@PathVariable long id, @RequestParam(defaultValue = "5") int radius) {
+        List<RankedEntry> window = index.around(id, Math.max(0, Math.min(radius, MAX_PAGE / 2)));
+        if (window.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown leaderboard entry");
+        }
+        return window;
+    }
+
+    // Up to limit players starting at a given 1-based rank
+    @GetMapping("/window")
+    public List<RankedEntry> getWindow(@RequestParam long fromRank, @RequestParam(defaultValue = "10") int limit) {
+        return index.window(fromRank, Math.max(0, Math.min(limit, MAX_PAGE)));
     }
     
+    // Keyset pagination on (timeTakenMs, id): pass the previous page's nextAfterTime/nextAfterId to continue
     @GetMapping("/all")
-    public List<LeaderboardEntry> getAllScores() {
-        return repository.findAllByOrderByTimeTakenMsAsc();
+    public LeaderboardPageResponse getAllScores(@RequestParam(defaultValue = "50") int limit,
+                                                @RequestParam(required = false) Long afterTime,
+                                                @RequestParam(required = false) Long afterId) {
+        index.awaitLoaded();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE));
+        List<LeaderboardRow> rows = repository.findPageAfter(
+            afterTime != null ? afterTime : Long.MIN_VALUE,
+            afterId != null ? afterId : Long.MIN_VALUE,
+            Limit.of(pageSize + 1)
+        );
+        boolean hasMore = rows.size() > pageSize;
+        return new LeaderboardPageResponse(hasMore ? rows.subList(0, pageSize) : rows, hasMore);
+    }
+
+    // Every player as one JSON array, streamed from a database cursor
+    @GetMapping("/all/stream")
+    public void streamAllScores(HttpServletResponse response) throws IOException {
+        index.awaitLoaded();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        exporter.writeAll(response.getOutputStream());
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.aiquiz.playwithai.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of the full leaderboard. Pass nextAfterTime and nextAfterId back
+ * as afterTime and afterId to get the following page.
+ */
+public class LeaderboardPageResponse {
+    private List<LeaderboardRow> entries;
+    private boolean hasMore;
+    private Long nextAfterTime;
+    private Long nextAfterId;
+
+    public LeaderboardPageResponse(List<LeaderboardRow> entries, boolean hasMore) {
+        this.entries = entries;
+        this.hasMore = hasMore;
+        if (hasMore) {
+            LeaderboardRow last = entries.get(entries.size() - 1);
+            this.nextAfterTime = last.getTimeTakenMs();
+            this.nextAfterId = last.getId();
+        }
+    }
+
+    // Getters and Setters
+    public List<LeaderboardRow> getEntries() { return entries; }
+    public void setEntries(List<LeaderboardRow> entries) { this.entries = entries; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public Long getNextAfterTime() { return nextAfterTime; }
+    public void setNextAfterTime(Long nextAfterTime) { this.nextAfterTime = nextAfterTime; }
+
+    public Long getNextAfterId() { return nextAfterId; }
+    public void setNextAfterId(Long nextAfterId) { this.nextAfterId = nextAfterId; }
+}
@@ -3,6 +3,7 @@ package com.aiquiz.playwithai.dto;
 import com.aiquiz.playwithai.model.LeaderboardEntry;
 
 public class LeaderboardResponse {
+    // With the write-behind enabled, a new player's entry has a null id: the row is written later
     private LeaderboardEntry entry;
     private boolean isNewEntry;
     private boolean timeUpdated;
@@ -15,6 +16,27 @@ public class LeaderboardResponse {
         this.message = message;
     }
 
+    // Response for a player seen for the first time
+    public static LeaderboardResponse added(LeaderboardEntry entry) {
+        return new LeaderboardResponse(entry, true, true, "Congratulations! You've been added to the leaderboard!");
+    }
+
+    // Response for a returning player; entry holds their best time after this submission
+    public static LeaderboardResponse returning(LeaderboardEntry entry, boolean timeUpdated) {
+        String message = timeUpdated 
+            ? "Welcome back! Your new best time has been recorded!" 
+            : "Welcome back! Your previous best time is still better (" + formatTime(entry.getTimeTakenMs()) + ")";
+        return new LeaderboardResponse(entry, false, timeUpdated, message);
+    }
+
+    // Helper method to format time as mm:ss.ms
+    private static String formatTime(long ms) {
+        long minutes = ms / 60000;
+        long seconds = (ms % 60000) / 1000;
+        long millis = ms % 1000;
+        return String.format("%02d:%02d.%03d", minutes, seconds, millis);
+    }
+
     // Getters and Setters
     public LeaderboardEntry getEntry() { return entry; }
     public void setEntry(LeaderboardEntry entry) { this.entry = entry; }
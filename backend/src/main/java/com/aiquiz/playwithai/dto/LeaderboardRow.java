@@ -0,0 +1,33 @@
+package com.aiquiz.playwithai.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Public columns of a leaderboard row, selected straight from the query (no phone number or email)
+ */
+public class LeaderboardRow {
+    private Long id;
+    private String name;
+    private long timeTakenMs;
+    private LocalDateTime datePlayed;
+
+    public LeaderboardRow(Long id, String name, long timeTakenMs, LocalDateTime datePlayed) {
+        this.id = id;
+        this.name = name;
+        this.timeTakenMs = timeTakenMs;
+        this.datePlayed = datePlayed;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getTimeTakenMs() { return timeTakenMs; }
+    public void setTimeTakenMs(long timeTakenMs) { this.timeTakenMs = timeTakenMs; }
+
+    public LocalDateTime getDatePlayed() { return datePlayed; }
+    public void setDatePlayed(LocalDateTime datePlayed) { this.datePlayed = datePlayed; }
+}
@@ -0,0 +1,38 @@
+package com.aiquiz.playwithai.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Public view of a leaderboard row with its 1-based rank (no phone number or email)
+ */
+public class RankedEntry {
+    private long rank;
+    private Long id;
+    private String name;
+    private long timeTakenMs;
+    private LocalDateTime datePlayed;
+
+    public RankedEntry(long rank, Long id, String name, long timeTakenMs, LocalDateTime datePlayed) {
+        this.rank = rank;
+        this.id = id;
+        this.name = name;
+        this.timeTakenMs = timeTakenMs;
+        this.datePlayed = datePlayed;
+    }
+
+    // Getters and Setters
+    public long getRank() { return rank; }
+    public void setRank(long rank) { this.rank = rank; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getTimeTakenMs() { return timeTakenMs; }
+    public void setTimeTakenMs(long timeTakenMs) { this.timeTakenMs = timeTakenMs; }
+
+    public LocalDateTime getDatePlayed() { return datePlayed; }
+    public void setDatePlayed(LocalDateTime datePlayed) { this.datePlayed = datePlayed; }
+}
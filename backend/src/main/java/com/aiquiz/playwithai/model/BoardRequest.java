@@ -3,11 +3,15 @@ package com.aiquiz.playwithai.model;
 import java.util.List;
 
 public class BoardRequest {
-    private List<String> board; // 9 elements: "X", "O", or null
+    private List<String> board; // boardSize * boardSize elements (9 by default): "X", "O", or null
     private String currentPlayer; // "X" or "O"
     private String difficulty; // easy, medium, hard
     private List<Integer> playerMoves; // History of player moves (for vanishing mechanic)
     private List<Integer> aiMoves; // History of AI moves (for vanishing mechanic)
+    private Long deadlineMs; // Optional: how long the client will wait for the move, in milliseconds
+    private Integer boardSize; // Optional: cells per side, 3-10 (default 3)
+    private Integer winLength; // Optional: marks in a row that win (default 3)
+    private Integer vanishLength; // Optional: marks each side keeps before the oldest vanishes, 0 = never (default winLength)
 
     public BoardRequest() {
     }
@@ -65,4 +69,36 @@ public class BoardRequest {
     public void setAiMoves(List<Integer> aiMoves) {
         this.aiMoves = aiMoves;
     }
+
+    public Long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    public void setDeadlineMs(Long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+
+    public Integer getBoardSize() {
+        return boardSize;
+    }
+
+    public void setBoardSize(Integer boardSize) {
+        this.boardSize = boardSize;
+    }
+
+    public Integer getWinLength() {
+        return winLength;
+    }
+
+    public void setWinLength(Integer winLength) {
+        this.winLength = winLength;
+    }
+
+    public Integer getVanishLength() {
+        return vanishLength;
+    }
+
+    public void setVanishLength(Integer vanishLength) {
+        this.vanishLength = vanishLength;
+    }
 }
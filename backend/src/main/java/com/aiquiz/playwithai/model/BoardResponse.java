@@ -3,11 +3,17 @@ package com.aiquiz.playwithai.model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class BoardResponse {
     private List<String> board;  // Updated board after AI move
     private boolean moveMade;    // Whether AI made a move
     private int moveIndex;       // Index where AI placed its mark
     private String nextPlayer;   // Next player to move (frontend uses this)
+    private int searchDepth;     // Deepest fully completed minimax iteration (0 if no search ran)
+    private boolean complete;    // Full-strength answer: not cut short by the time budget or a busy pool, not random;
+                                 // server-side only, it decides whether AiMoveCache lets the answer be cached
+    private String error;        // Why no move was made, for failed items in a batch
 
     public BoardResponse() {
     }
@@ -19,6 +25,11 @@ public class BoardResponse {
         this.nextPlayer = nextPlayer;
     }
 
+    public BoardResponse(List<String> board, boolean moveMade, int moveIndex, String nextPlayer, int searchDepth) {
+        this(board, moveMade, moveIndex, nextPlayer);
+        this.searchDepth = searchDepth;
+    }
+
     public List<String> getBoard() {
         return board;
     }
@@ -50,4 +61,29 @@ public class BoardResponse {
     public void setNextPlayer(String nextPlayer) {
         this.nextPlayer = nextPlayer;
     }
+
+    public int getSearchDepth() {
+        return searchDepth;
+    }
+
+    public void setSearchDepth(int searchDepth) {
+        this.searchDepth = searchDepth;
+    }
+
+    @JsonIgnore
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
 }
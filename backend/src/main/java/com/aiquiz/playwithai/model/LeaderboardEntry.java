@@ -38,6 +38,7 @@ public class LeaderboardEntry {
 
     // Getters and Setters
     public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     public String getPhoneNumber() { return phoneNumber; }
@@ -0,0 +1,20 @@
+package com.aiquiz.playwithai.model;
+
+public class SessionMoveRequest {
+    private int index; // Cell index (0-8) the human played
+
+    public SessionMoveRequest() {
+    }
+
+    public SessionMoveRequest(int index) {
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+}
@@ -0,0 +1,60 @@
+package com.aiquiz.playwithai.model;
+
+public class SessionResponse {
+    private String gameId;
+    private int aiMove;       // Cell the AI played this turn, or -1 if it did not move
+    private boolean gameOver;
+    private String winner;    // "X", "O" or null
+    private int searchDepth;  // Depth the AI searched to (0 if no search ran)
+
+    public SessionResponse() {
+    }
+
+    public SessionResponse(String gameId, int aiMove, boolean gameOver, String winner, int searchDepth) {
+        this.gameId = gameId;
+        this.aiMove = aiMove;
+        this.gameOver = gameOver;
+        this.winner = winner;
+        this.searchDepth = searchDepth;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public int getAiMove() {
+        return aiMove;
+    }
+
+    public void setAiMove(int aiMove) {
+        this.aiMove = aiMove;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
+    public String getWinner() {
+        return winner;
+    }
+
+    public void setWinner(String winner) {
+        this.winner = winner;
+    }
+
+    public int getSearchDepth() {
+        return searchDepth;
+    }
+
+    public void setSearchDepth(int searchDepth) {
+        this.searchDepth = searchDepth;
+    }
+}
@@ -0,0 +1,34 @@
+package com.aiquiz.playwithai.model;
+
+public class SessionStartRequest {
+    private String difficulty; // easy, medium, hard
+    private String aiMark;     // "X" or "O" (defaults to "O")
+    private boolean aiStarts;  // Whether the AI makes the first move
+
+    public SessionStartRequest() {
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public String getAiMark() {
+        return aiMark;
+    }
+
+    public void setAiMark(String aiMark) {
+        this.aiMark = aiMark;
+    }
+
+    public boolean isAiStarts() {
+        return aiStarts;
+    }
+
+    public void setAiStarts(boolean aiStarts) {
+        this.aiStarts = aiStarts;
+    }
+}
@@ -1,17 +1,59 @@
 package com.aiquiz.playwithai.repository;
 
+import com.aiquiz.playwithai.dto.LeaderboardRow;
 import com.aiquiz.playwithai.model.LeaderboardEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LeaderboardRepository extends JpaRepository<LeaderboardEntry, Long> {
     // Get top 10 players who finished fastest (lowest time in milliseconds)
     List<LeaderboardEntry> findTop10ByOrderByTimeTakenMsAsc();
     
-    // Get all players sorted by time (for full leaderboard)
-    List<LeaderboardEntry> findAllByOrderByTimeTakenMsAsc();
+    // Next page of the full leaderboard after the (time, id) of the last row already seen
+    @Query("select new com.aiquiz.playwithai.dto.LeaderboardRow(e.id, e.name, e.timeTakenMs, e.datePlayed) "
+         + "from LeaderboardEntry e "
+         + "where e.timeTakenMs > :afterTime or (e.timeTakenMs = :afterTime and e.id > :afterId) "
+         + "order by e.timeTakenMs asc, e.id asc")
+    List<LeaderboardRow> findPageAfter(@Param("afterTime") long afterTime, @Param("afterId") long afterId, Limit limit);
+
+    // Whole leaderboard as a cursor; must be consumed inside a transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.aiquiz.playwithai.dto.LeaderboardRow(e.id, e.name, e.timeTakenMs, e.datePlayed) "
+         + "from LeaderboardEntry e order by e.timeTakenMs asc, e.id asc")
+    Stream<LeaderboardRow> streamAllOrdered();
     
     // Find existing entry by phone number and email
     Optional<LeaderboardEntry> findByPhoneNumberAndEmail(String phoneNumber, String email);
+
+    // Insert a player or update their row in one statement, keeping the lower time. A missing phone number
+    // or email matches another missing one (the unique index is NULLS NOT DISTINCT, see V3).
+    // The subquery in RETURNING reads the snapshot from before the statement, so it sees the previous best.
+    @Transactional
+    @Query(value = "INSERT INTO leaderboard AS l (name, phone_number, email, time_taken_seconds, date_played) "
+                 + "VALUES (:name, :phoneNumber, :email, :timeTakenMs, :datePlayed) "
+                 + "ON CONFLICT (phone_number, email) DO UPDATE SET "
+                 + "  name = EXCLUDED.name, "
+                 + "  date_played = EXCLUDED.date_played, "
+                 + "  time_taken_seconds = LEAST(l.time_taken_seconds, EXCLUDED.time_taken_seconds) "
+                 + "RETURNING l.id AS id, l.time_taken_seconds AS \"timeTakenMs\", (l.xmax = 0) AS inserted, "
+                 + "  (SELECT p.time_taken_seconds FROM leaderboard p "
+                 + "   WHERE p.phone_number IS NOT DISTINCT FROM :phoneNumber "
+                 + "     AND p.email IS NOT DISTINCT FROM :email) AS \"previousTimeMs\"",
+           nativeQuery = true)
+    LeaderboardUpsertResult upsert(@Param("name") String name, @Param("phoneNumber") String phoneNumber,
+                                   @Param("email") String email, @Param("timeTakenMs") long timeTakenMs,
+                                   @Param("datePlayed") LocalDateTime datePlayed);
 }
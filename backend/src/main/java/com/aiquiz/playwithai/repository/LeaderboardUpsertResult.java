@@ -0,0 +1,17 @@
+package com.aiquiz.playwithai.repository;
+
+/**
+ * Row returned by LeaderboardRepository.upsert
+ */
+public interface LeaderboardUpsertResult {
+    Long getId();
+
+    // Best time after the upsert
+    long getTimeTakenMs();
+
+    // True when the statement inserted a new row rather than updating one
+    boolean getInserted();
+
+    // Best time before the upsert, or null if there was no row
+    Long getPreviousTimeMs();
+}
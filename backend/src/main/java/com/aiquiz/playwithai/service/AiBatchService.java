@@ -0,0 +1,65 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+import com.aiquiz.playwithai.model.BoardResponse;
+
+/**
+ * Evaluates a batch of AI move requests in parallel on the shared AI compute pool,
+ * through the same coalescing as single requests so repeated positions are searched once.
+ * A failing item, including one turned away by a full pool, gets an error response
+ * of its own instead of failing the batch.
+ */
+@Service
+public class AiBatchService {
+
+    private final AiMoveCoalescer aiMoveCoalescer;
+    private final int maxBatchSize;
+
+    @Autowired
+    public AiBatchService(AiMoveCoalescer aiMoveCoalescer,
+                          @Value("${ai.batch.max-size:64}") int maxBatchSize) {
+        this.aiMoveCoalescer = aiMoveCoalescer;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Responses in the same order as the requests
+     *
+     * @throws IllegalArgumentException if the batch holds more than ai.batch.max-size requests
+     */
+    public List<BoardResponse> makeAiMoves(List<BoardRequest> boardRequests) {
+        if (boardRequests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " positions per batch");
+        }
+        List<CompletableFuture<BoardResponse>> pending = boardRequests.stream()
+            .map(this::submit)
+            .toList();
+        return pending.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * One item's move; a request that fails before its search starts (e.g. a malformed board) fails only that item
+     */
+    private CompletableFuture<BoardResponse> submit(BoardRequest request) {
+        try {
+            return aiMoveCoalescer.submit(request).exceptionally(AiBatchService::failed);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failed(e));
+        }
+    }
+
+    private static BoardResponse failed(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        BoardResponse response = new BoardResponse(null, false, -1, null);
+        response.setError(cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+        return response;
+    }
+}
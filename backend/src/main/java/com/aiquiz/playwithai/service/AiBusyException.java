@@ -0,0 +1,18 @@
+package com.aiquiz.playwithai.service;
+
+/**
+ * Thrown when the AI compute pool's queue is full and overflow is set to reject
+ */
+public class AiBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AiBusyException(long retryAfterSeconds) {
+        super("The AI is busy, please retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
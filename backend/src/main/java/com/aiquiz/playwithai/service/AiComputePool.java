@@ -0,0 +1,120 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulkhead for AI searches: a CPU-sized pool of platform threads with a bounded queue.
+ *
+ * Requests are handled on virtual threads, which only wait here, so blocking leaderboard
+ * I/O never competes with minimax for a worker. When the queue is full, ai.compute.overflow
+ * decides: "reject" fails with AiBusyException (429 with Retry-After), "shallow" runs the
+ * task on the calling thread with iterative deepening capped at ai.compute.fallback-depth.
+ */
+@Service
+public class AiComputePool {
+
+    private static final String POOL = "ai-compute";
+
+    private final ThreadPoolExecutor executor;
+    private final boolean shallowOnOverflow;
+    private final int fallbackDepth;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+    private final Counter shallow;
+
+    @Autowired
+    public AiComputePool(MeterRegistry registry,
+                         @Value("${ai.compute.threads:0}") int threads,
+                         @Value("${ai.compute.queue-capacity:256}") int queueCapacity,
+                         @Value("${ai.compute.overflow:reject}") String overflow,
+                         @Value("${ai.compute.fallback-depth:2}") int fallbackDepth,
+                         @Value("${ai.compute.retry-after-seconds:1}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                                               r -> {
+                                                   Thread thread = new Thread(r, POOL + "-" + threadCount.incrementAndGet());
+                                                   thread.setDaemon(true);
+                                                   return thread;
+                                               },
+                                               new ThreadPoolExecutor.AbortPolicy());
+        this.shallowOnOverflow = "shallow".equalsIgnoreCase(overflow);
+        this.fallbackDepth = Math.max(1, fallbackDepth);
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("ai.pool.queue.depth", executor, e -> e.getQueue().size())
+            .description("Tasks waiting for an AI thread")
+            .tag("pool", POOL)
+            .register(registry);
+        Gauge.builder("ai.pool.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("AI threads currently searching")
+            .tag("pool", POOL)
+            .register(registry);
+        this.rejected = Counter.builder("ai.pool.rejections")
+            .description("Tasks turned away because the queue was full")
+            .tag("pool", POOL)
+            .tag("outcome", "rejected")
+            .register(registry);
+        this.shallow = Counter.builder("ai.pool.rejections")
+            .description("Tasks turned away because the queue was full")
+            .tag("pool", POOL)
+            .tag("outcome", "shallow")
+            .register(registry);
+    }
+
+    /**
+     * Run a search on the pool. The task gets the depth cap to pass to AiService:
+     * AiService.NO_DEPTH_CAP normally, the fallback depth when it runs on overflow.
+     */
+    public <T> CompletableFuture<T> submit(IntFunction<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> task.apply(AiService.NO_DEPTH_CAP), executor);
+        } catch (RejectedExecutionException e) {
+            if (!shallowOnOverflow) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(new AiBusyException(retryAfterSeconds));
+            }
+            shallow.increment();
+            try {
+                return CompletableFuture.completedFuture(task.apply(fallbackDepth));
+            } catch (RuntimeException failure) {
+                return CompletableFuture.failedFuture(failure);
+            }
+        }
+    }
+
+    /**
+     * Run a search on the pool and wait for it; exceptions from the task are rethrown as they are
+     */
+    public <T> T call(IntFunction<T> task) {
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,103 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Micrometer meters for AI moves, published through Actuator under /actuator/metrics.
+ *
+ * The search keeps its counters in plain fields and hands them over once per move,
+ * so nothing here runs per node. Meters are created up front for each difficulty.
+ */
+@Component
+public class AiMetrics {
+
+    static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    private final Map<String, Timer> searchTime = new HashMap<>();
+    private final Map<String, Counter> nodes = new HashMap<>();
+    private final Map<String, Counter> cutoffs = new HashMap<>();
+    private final Map<String, Counter> playouts = new HashMap<>();
+    private final Map<String, DistributionSummary> depth = new HashMap<>();
+    private final Map<String, Map<MoveSource, Counter>> sources = new HashMap<>();
+
+    @Autowired
+    public AiMetrics(MeterRegistry registry, TranspositionTable transpositionTable) {
+        for (String difficulty : DIFFICULTIES) {
+            // Engine time only; AiMoveCoalescer times whole requests as ai.move.latency
+            searchTime.put(difficulty, Timer.builder("ai.search.time")
+                .description("Time the engine spent choosing an AI move, not counting time queued for the AI pool")
+                .tag("difficulty", difficulty)
+                .publishPercentileHistogram()
+                .register(registry));
+            nodes.put(difficulty, Counter.builder("ai.search.nodes")
+                .description("Minimax nodes visited")
+                .tag("difficulty", difficulty)
+                .register(registry));
+            cutoffs.put(difficulty, Counter.builder("ai.search.cutoffs")
+                .description("Alpha-beta cutoffs")
+                .tag("difficulty", difficulty)
+                .register(registry));
+            playouts.put(difficulty, Counter.builder("ai.mcts.playouts")
+                .description("Monte Carlo playouts run")
+                .tag("difficulty", difficulty)
+                .register(registry));
+            depth.put(difficulty, DistributionSummary.builder("ai.search.depth")
+                .description("Deepest completed iterative-deepening depth per searched move")
+                .tag("difficulty", difficulty)
+                .register(registry));
+            Map<MoveSource, Counter> bySource = new EnumMap<>(MoveSource.class);
+            for (MoveSource source : MoveSource.values()) {
+                bySource.put(source, Counter.builder("ai.move.source")
+                    .description("Which path produced the AI move")
+                    .tag("difficulty", difficulty)
+                    .tag("source", source.tag)
+                    .register(registry));
+            }
+            sources.put(difficulty, bySource);
+        }
+        Gauge.builder("ai.tt.hit.rate", transpositionTable, TranspositionTable::hitRate)
+            .description("Transposition table hit rate since startup")
+            .register(registry);
+    }
+
+    /**
+     * Meters backed by a private registry, for running the engine outside Spring
+     */
+    public static AiMetrics standalone() {
+        return new AiMetrics(new SimpleMeterRegistry(), TranspositionTable.disabled());
+    }
+
+    /**
+     * Difficulty as the move switch sees it: unknown values play like "easy"
+     */
+    static String tagFor(String difficulty) {
+        return "medium".equals(difficulty) || "hard".equals(difficulty) ? difficulty : "easy";
+    }
+
+    void recordMove(String difficulty, MoveSource source, long elapsedNanos,
+                    long searchNodes, long searchCutoffs, int searchDepth) {
+        String tag = tagFor(difficulty);
+        searchTime.get(tag).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        sources.get(tag).get(source).increment();
+        if (source == MoveSource.MINIMAX) {
+            nodes.get(tag).increment(searchNodes);
+            cutoffs.get(tag).increment(searchCutoffs);
+            depth.get(tag).record(searchDepth);
+        } else if (source == MoveSource.MCTS) {
+            playouts.get(tag).increment(searchNodes); // An MCTS move reports playouts as its nodes
+        }
+    }
+}
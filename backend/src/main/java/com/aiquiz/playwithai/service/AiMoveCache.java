@@ -0,0 +1,93 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.aiquiz.playwithai.model.BoardResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Server-side LRU of AI moves by state token (see AiMoveToken), behind the cacheable
+ * GET form of the move endpoint. Misses go through the coalescer, so a burst of requests
+ * for an uncached state still runs one search.
+ *
+ * Only answers the engine would give every time are stored or marked cacheable: complete
+ * searches (not cut short by the time budget or the busy pool's shallow fallback, not
+ * MCTS) for a token of the current ENGINE_VERSION. Hard moves also need the tablebase,
+ * which the version assumes. Failures are never stored.
+ */
+@Service
+public class AiMoveCache {
+
+    private final AiMoveCoalescer aiMoveCoalescer;
+    private final Tablebase tablebase;
+    private final Map<String, BoardResponse> responses; // Guarded by itself
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public AiMoveCache(AiMoveCoalescer aiMoveCoalescer, Tablebase tablebase, MeterRegistry registry,
+                       @Value("${ai.move-cache.entries:10000}") int entries) {
+        this.aiMoveCoalescer = aiMoveCoalescer;
+        this.tablebase = tablebase;
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BoardResponse> eldest) {
+                return size() > entries;
+            }
+        };
+        this.hits = Counter.builder("ai.move.cache")
+            .description("GET AI move lookups in the server-side cache")
+            .tag("result", "hit")
+            .register(registry);
+        this.misses = Counter.builder("ai.move.cache")
+            .description("GET AI move lookups in the server-side cache")
+            .tag("result", "miss")
+            .register(registry);
+    }
+
+    /**
+     * The move for a state token, searched on the first request and remembered afterwards if it is cacheable
+     *
+     * @throws IllegalArgumentException if the token is malformed or the board is out of range
+     */
+    public Lookup move(String token) {
+        synchronized (responses) {
+            BoardResponse cached = responses.get(token);
+            if (cached != null) {
+                hits.increment();
+                return new Lookup(cached, true);
+            }
+        }
+        misses.increment();
+        AiMoveToken.Decoded decoded = AiMoveToken.decode(token);
+        BoardResponse response = aiMoveCoalescer.call(decoded.request());
+        boolean cacheable = response.isComplete() && decoded.currentEngine()
+            && (tablebase.isLoaded() || !"hard".equals(decoded.request().getDifficulty()));
+        if (cacheable) {
+            synchronized (responses) {
+                responses.put(token, response);
+            }
+        }
+        return new Lookup(response, cacheable);
+    }
+
+    /**
+     * Strong validator for the response to a token: the state plus everything the body says about the move
+     */
+    public static String eTag(String token, BoardResponse response) {
+        return "\"" + token + "." + response.getMoveIndex() + "." + response.getSearchDepth() + "\"";
+    }
+
+    /**
+     * @param cacheable whether the same token will always get this response from this engine version
+     */
+    public record Lookup(BoardResponse response, boolean cacheable) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+import com.aiquiz.playwithai.model.BoardResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Single-flight in front of the AI pool: concurrent "medium" and "hard" requests for the
+ * same position share one search instead of each queueing their own.
+ *
+ * 3x3 requests are keyed on the canonical position (board and both move queues, AI to move),
+ * so symmetric boards and either mark letter share a search and each caller maps the move
+ * back through its own symmetry; other boards are keyed on the request as sent. The client
+ * deadline is part of the key since it bounds the search. "easy" is never shared, so every
+ * caller still gets its own random move. Nothing is kept once the search has finished.
+ *
+ * ai.move.latency is timed here, from submit until the caller's answer is ready, so it
+ * includes waiting for the pool or for a shared search; ai.search.time is the search alone.
+ */
+@Service
+public class AiMoveCoalescer {
+
+    private final AiService aiService;
+    private final AiComputePool computePool;
+    private final boolean enabled;
+    private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter joined;
+    private final Map<String, Timer> latency = new HashMap<>();
+
+    @Autowired
+    public AiMoveCoalescer(AiService aiService, AiComputePool computePool, MeterRegistry registry,
+                           @Value("${ai.coalesce.enabled:true}") boolean enabled) {
+        this.aiService = aiService;
+        this.computePool = computePool;
+        this.enabled = enabled;
+
+        Gauge.builder("ai.coalesce.in.flight", inFlight, Map::size)
+            .description("Distinct AI searches that identical requests can join")
+            .register(registry);
+        this.joined = Counter.builder("ai.coalesce.joined")
+            .description("AI move requests answered by a search another request started")
+            .register(registry);
+        for (String difficulty : AiMetrics.DIFFICULTIES) {
+            latency.put(difficulty, Timer.builder("ai.move.latency")
+                .description("Time from an AI move request to its answer, including waiting for the AI pool")
+                .tag("difficulty", difficulty)
+                .publishPercentileHistogram()
+                .register(registry));
+        }
+    }
+
+    /**
+     * Move for the request, from a search on the AI pool that may be shared with identical requests
+     */
+    public CompletableFuture<BoardResponse> submit(BoardRequest request) {
+        long startNanos = System.nanoTime();
+        String difficulty = request.getDifficulty() != null ? request.getDifficulty().toLowerCase() : "medium";
+        Timer timer = latency.get(AiMetrics.tagFor(difficulty));
+        CompletableFuture<BoardResponse> response = move(request, difficulty);
+        response.whenComplete((result, error) -> timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+        return response;
+    }
+
+    private CompletableFuture<BoardResponse> move(BoardRequest request, String difficulty) {
+        if (!enabled || request.getCurrentPlayer() == null
+            || !(difficulty.equals("medium") || difficulty.equals("hard"))) {
+            return computePool.submit(maxDepth -> aiService.makeAiMove(request, maxDepth));
+        }
+
+        if (!AiService.isClassic(request)) {
+            GridKey key = new GridKey(request.getBoard(), request.getAiMoves(), request.getPlayerMoves(),
+                                      request.getCurrentPlayer(), request.getBoardSize(), request.getWinLength(),
+                                      request.getVanishLength(), difficulty, request.getDeadlineMs());
+            return join(key, maxDepth -> aiService.makeAiMove(request, maxDepth));
+        }
+
+        String aiPlayer = request.getCurrentPlayer();
+        String humanPlayer = aiPlayer.equals("X") ? "O" : "X";
+        Position requested = AiService.toPosition(request.getBoard(), aiPlayer, humanPlayer,
+                                                  request.getAiMoves(), request.getPlayerMoves());
+        int symmetry = requested.canonicalSymmetry();
+        Position canonical = requested.transformed(symmetry);
+        ClassicKey key = new ClassicKey(canonical.hash(), canonical.mask(AiService.AI), canonical.mask(AiService.HUMAN),
+                                        difficulty, request.getDeadlineMs());
+        return join(key, maxDepth -> aiService.chooseMove(canonical, difficulty, request.getDeadlineMs(), maxDepth))
+            .thenApply(result -> {
+                int moveIndex = Symmetry.back(symmetry, result.moveIndex);
+                BoardResponse response = new BoardResponse(null, moveIndex != -1, moveIndex, humanPlayer, result.depth);
+                response.setComplete(result.complete);
+                return response;
+            });
+    }
+
+    /**
+     * As submit, waiting for the move; exceptions from the search are rethrown as they are
+     */
+    public BoardResponse call(BoardRequest request) {
+        try {
+            return submit(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * The search already running for this key, or a new one on the pool that later callers can join
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> join(Object key, IntFunction<T> task) {
+        CompletableFuture<T> search = new CompletableFuture<>();
+        CompletableFuture<T> running = (CompletableFuture<T>) inFlight.putIfAbsent(key, search);
+        if (running != null) {
+            joined.increment();
+            return running.copy();
+        }
+        computePool.submit(task).whenComplete((result, error) -> {
+            // Out of the map first, so a request arriving after the result starts a fresh search
+            inFlight.remove(key, search);
+            if (error != null) {
+                search.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                                             ? error.getCause() : error);
+            } else {
+                search.complete(result);
+            }
+        });
+        return search.copy();
+    }
+
+    private record ClassicKey(long hash, int aiMask, int humanMask, String difficulty, Long deadlineMs) {
+    }
+
+    private record GridKey(List<String> board, List<Integer> aiMoves, List<Integer> playerMoves, String currentPlayer,
+                           Integer boardSize, Integer winLength, Integer vanishLength, String difficulty,
+                           Long deadlineMs) {
+    }
+}
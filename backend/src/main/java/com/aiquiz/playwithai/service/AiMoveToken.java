@@ -0,0 +1,142 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+
+/**
+ * Compact, URL-safe encoding of everything an AI move depends on, for GET /api/game/aiMove/{token}.
+ *
+ * Bytes, base64url without padding:
+ *   flags         bit 0: hard (else medium), bit 1: the AI plays O (else X), bit 2: board dimensions follow,
+ *                 bits 4-7: the ENGINE_VERSION the client expects (0 in tokens from before versioning)
+ *   [size, win, vanish]  only with bit 2, for boards other than the original 3x3 game
+ *   n, n cells    the AI's marks, oldest first
+ *   m, m cells    the opponent's marks, oldest first
+ * The board is exactly the marks in the two queues, so a 3x3 state is 12 characters.
+ * frontend/src/utils/aiMoveToken.js writes the same format.
+ *
+ * Answers to a token are cached for a long time, so the version is part of it: bump
+ * ENGINE_VERSION here and in the frontend whenever the engine, its depth limits or the
+ * tablebase format change the moves it plays. Tokens for another version still get an
+ * answer, just never a cacheable one.
+ */
+public final class AiMoveToken {
+
+    private static final int HARD = 1;
+    private static final int AI_PLAYS_O = 2;
+    private static final int CUSTOM_BOARD = 4;
+    private static final int VERSION_SHIFT = 4;
+
+    /**
+     * Revision of the moves the engine plays for a token, 1 to 15
+     */
+    public static final int ENGINE_VERSION = 1;
+
+    private AiMoveToken() {
+    }
+
+    /**
+     * The move request a token stands for, and the engine version the client asked for
+     *
+     * @throws IllegalArgumentException if the token is malformed or describes an impossible board
+     */
+    public static Decoded decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid move token");
+        }
+        Reader in = new Reader(bytes);
+        int first = in.next();
+        int version = first >>> VERSION_SHIFT;
+        int flags = first & ((1 << VERSION_SHIFT) - 1);
+        if ((flags & ~(HARD | AI_PLAYS_O | CUSTOM_BOARD)) != 0) {
+            throw new IllegalArgumentException("Invalid move token");
+        }
+        int size = 3;
+        int win = 3;
+        int vanish = Position.MAX_MARKS;
+        if ((flags & CUSTOM_BOARD) != 0) {
+            size = in.next();
+            win = in.next();
+            vanish = in.next();
+            // Throws for sizes and line lengths out of range
+            GridGeometry.of(size, win);
+        }
+        int cells = size * size;
+        int maxMarks = vanish > 0 ? Math.min(vanish, cells) : cells;
+
+        String aiPlayer = (flags & AI_PLAYS_O) != 0 ? "O" : "X";
+        String humanPlayer = aiPlayer.equals("X") ? "O" : "X";
+        List<String> board = new ArrayList<>(Collections.nCopies(cells, (String) null));
+        List<Integer> aiMoves = in.queue(board, aiPlayer, cells, maxMarks);
+        List<Integer> playerMoves = in.queue(board, humanPlayer, cells, maxMarks);
+        if (in.remaining()) {
+            throw new IllegalArgumentException("Invalid move token");
+        }
+
+        BoardRequest request = new BoardRequest(board, aiPlayer, (flags & HARD) != 0 ? "hard" : "medium",
+                                                playerMoves, aiMoves);
+        if ((flags & CUSTOM_BOARD) != 0) {
+            request.setBoardSize(size);
+            request.setWinLength(win);
+            request.setVanishLength(vanish);
+        }
+        return new Decoded(request, version);
+    }
+
+    /**
+     * @param engineVersion ENGINE_VERSION of the client that wrote the token
+     */
+    public record Decoded(BoardRequest request, int engineVersion) {
+
+        public boolean currentEngine() {
+            return engineVersion == ENGINE_VERSION;
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int next() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Invalid move token");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        boolean remaining() {
+            return position < bytes.length;
+        }
+
+        /**
+         * A count-prefixed queue of cells, each placed on the board for the given mark
+         */
+        List<Integer> queue(List<String> board, String mark, int cells, int maxMarks) {
+            int count = next();
+            if (count > maxMarks) {
+                throw new IllegalArgumentException("Invalid move token: more marks than can stay on the board");
+            }
+            List<Integer> moves = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int cell = next();
+                if (cell >= cells || board.get(cell) != null) {
+                    throw new IllegalArgumentException("Invalid move token: bad cell " + cell);
+                }
+                board.set(cell, mark);
+                moves.add(cell);
+            }
+            return moves;
+        }
+    }
+}
@@ -3,191 +3,714 @@ package com.aiquiz.playwithai.service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.aiquiz.playwithai.model.BoardRequest;
 import com.aiquiz.playwithai.model.BoardResponse;
 
+import jakarta.annotation.PreDestroy;
+
 @Service
 public class AiService {
 
-    private static final int BOARD_SIZE = 9;
+    private static final int BOARD_SIZE = Position.BOARD_SIZE;
     private static final int MAX_DEPTH_HARD = 12;  // Maximum depth for unbeatable play
     private static final int MAX_DEPTH_MEDIUM = 8; // Depth for very difficult play
-    private static final int WIN_SCORE = 1000;
-    private static final int LOSE_SCORE = -1000;
+    public static final int NO_DEPTH_CAP = Integer.MAX_VALUE; // Search as deep as the difficulty allows
+    static final int WIN_SCORE = 1000;
+    static final int LOSE_SCORE = -1000;
     private final Random random = new Random();
+    private final Tablebase tablebase;
+    private final TranspositionTable transpositionTable;
+    private final AiMetrics metrics;
+    private final MctsEngine mcts;
+    private final long mediumBudgetMs; // Time budget per move for iterative deepening
+    private final long hardBudgetMs;
+    private final ForkJoinPool searchPool; // null when every search is serial
+    private final int parallelMinDepth;   // Shallower iterations are too cheap to split
+
+    // Side indices inside a Position: the search always maximizes for the AI
+    static final int AI = 0;
+    static final int HUMAN = 1;
+
+    // Mate scores are stored as if found at this depth so they can be reused at any node depth
+    private static final int TABLE_DEPTH = 63;
+    private static final int DEADLINE_CHECK_INTERVAL = 1024; // Nodes between clock reads
+    private static final int[] STATIC_ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7}; // Center, corners, then edges
+
+    public AiService(Tablebase tablebase, TranspositionTable transpositionTable, AiMetrics metrics,
+                     long mediumBudgetMs, long hardBudgetMs) {
+        this(tablebase, transpositionTable, metrics, MctsEngine.disabled(), mediumBudgetMs, hardBudgetMs, 1, 0);
+    }
+
+    /**
+     * With parallelism above 1 (0 = one thread per core), root moves of iterations at least
+     * parallelMinDepth deep are searched on a fork-join pool of that many threads
+     */
+    @Autowired
+    public AiService(Tablebase tablebase, TranspositionTable transpositionTable, AiMetrics metrics, MctsEngine mcts,
+                     @Value("${ai.search.budget-ms.medium:150}") long mediumBudgetMs,
+                     @Value("${ai.search.budget-ms.hard:300}") long hardBudgetMs,
+                     @Value("${ai.search.parallelism:1}") int parallelism,
+                     @Value("${ai.search.parallel-min-depth:6}") int parallelMinDepth) {
+        this.tablebase = tablebase;
+        this.transpositionTable = transpositionTable;
+        this.metrics = metrics;
+        this.mcts = mcts;
+        this.mediumBudgetMs = mediumBudgetMs;
+        this.hardBudgetMs = hardBudgetMs;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.searchPool = threads > 1
+            ? new ForkJoinPool(threads, pool -> {
+                  ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                  thread.setName("ai-search-" + thread.getPoolIndex());
+                  return thread;
+              }, null, false)
+            : null;
+        this.parallelMinDepth = parallelMinDepth;
+    }
+
+    private AiService(AiService source, AiMetrics metrics) {
+        this.tablebase = source.tablebase;
+        this.transpositionTable = source.transpositionTable;
+        this.metrics = metrics;
+        this.mcts = source.mcts;
+        this.mediumBudgetMs = source.mediumBudgetMs;
+        this.hardBudgetMs = source.hardBudgetMs;
+        this.searchPool = source.searchPool;
+        this.parallelMinDepth = source.parallelMinDepth;
+    }
+
+    /**
+     * The same engine, tables and thread pool, recording into other metrics; the pool stays
+     * owned by this instance
+     */
+    AiService withMetrics(AiMetrics metrics) {
+        return new AiService(this, metrics);
+    }
 
-    private static final int[][] WINNING_LINES = {
-        {0,1,2},{3,4,5},{6,7,8},
-        {0,3,6},{1,4,7},{2,5,8},
-        {0,4,8},{2,4,6}
-    };
+    @PreDestroy
+    void shutdown() {
+        if (searchPool != null) {
+            searchPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Restart the random moves (easy, fallbacks) from a seed, and the MCTS engine with it,
+     * so a headless game can be replayed exactly
+     */
+    void reseed(long seed) {
+        random.setSeed(seed);
+        mcts.restart(seed);
+    }
 
     public BoardResponse makeAiMove(BoardRequest boardRequest) {
-        List<String> board = new ArrayList<>(boardRequest.getBoard());
+        return makeAiMove(boardRequest, NO_DEPTH_CAP);
+    }
+
+    /**
+     * Same as makeAiMove, but never searching deeper than maxDepth (used when the AI pool is saturated)
+     */
+    public BoardResponse makeAiMove(BoardRequest boardRequest, int maxDepth) {
         String aiPlayer = boardRequest.getCurrentPlayer();
         String humanPlayer = aiPlayer.equals("X") ? "O" : "X";
+
+        if (!isClassic(boardRequest)) {
+            int boardSize = boardRequest.getBoardSize() != null ? boardRequest.getBoardSize() : 3;
+            int winLength = boardRequest.getWinLength() != null ? boardRequest.getWinLength() : 3;
+            int vanishLength = boardRequest.getVanishLength() != null ? boardRequest.getVanishLength() : winLength;
+            return makeGridMove(boardRequest, aiPlayer, humanPlayer, boardSize, winLength, vanishLength, maxDepth);
+        }
+
+        Position requested = toPosition(boardRequest.getBoard(), aiPlayer, humanPlayer,
+                                        boardRequest.getAiMoves(), boardRequest.getPlayerMoves());
+        MoveResult result = chooseMove(requested, boardRequest.getDifficulty(), boardRequest.getDeadlineMs(), maxDepth);
+
+        BoardResponse response = new BoardResponse(null, result.moveIndex != -1, result.moveIndex, humanPlayer, result.depth);
+        response.setComplete(result.complete);
+        return response;
+    }
+
+    /**
+     * Whether the request is for the original 3x3 game with three marks per side
+     */
+    static boolean isClassic(BoardRequest boardRequest) {
+        Integer winLength = boardRequest.getWinLength();
+        Integer vanishLength = boardRequest.getVanishLength() != null ? boardRequest.getVanishLength() : winLength;
+        return (boardRequest.getBoardSize() == null || boardRequest.getBoardSize() == 3)
+            && (winLength == null || winLength == 3)
+            && (vanishLength == null || vanishLength == Position.MAX_MARKS);
+    }
+
+    /**
+     * Move on any other board: GridEngine with the same difficulty ladder as the 3x3 game
+     * (random with immediate wins on easy; win, block, then search on medium and hard)
+     *
+     * @throws IllegalArgumentException if the board size, line length or vanish length is out of range
+     */
+    private BoardResponse makeGridMove(BoardRequest boardRequest, String aiPlayer, String humanPlayer,
+                                       int boardSize, int winLength, int vanishLength, int maxDepth) {
+        long startNanos = System.nanoTime();
+        if (vanishLength != 0 && vanishLength < winLength) {
+            throw new IllegalArgumentException("Vanish length must be 0 (never) or at least the line length");
+        }
+        GridGeometry geometry = GridGeometry.of(boardSize, winLength);
+        // A side can never hold more marks than the board has cells
+        GridPosition position = toGridPosition(geometry, Math.min(vanishLength, geometry.cells), boardRequest.getBoard(), aiPlayer, humanPlayer,
+                                               boardRequest.getAiMoves(), boardRequest.getPlayerMoves());
         String difficulty = boardRequest.getDifficulty() != null ? boardRequest.getDifficulty().toLowerCase() : "medium";
-        
-        List<Integer> playerMoves = boardRequest.getPlayerMoves() != null ? new ArrayList<>(boardRequest.getPlayerMoves()) : new ArrayList<>();
-        List<Integer> aiMoves = boardRequest.getAiMoves() != null ? new ArrayList<>(boardRequest.getAiMoves()) : new ArrayList<>();
+        boolean searches = difficulty.equals("hard") || difficulty.equals("medium");
+        GridEngine.Search search = new GridEngine.Search();
+        int searchDepth = 0;
+        boolean complete = false;
+
+        int moveIndex = GridEngine.findCompletingCell(position, AI);
+        MoveSource source = MoveSource.IMMEDIATE_WIN;
+        if (moveIndex == -1 && searches) {
+            moveIndex = GridEngine.findCompletingCell(position, HUMAN);
+            source = MoveSource.BLOCK;
+        }
+        if (moveIndex == -1 && searches && mcts.handles(difficulty)) {
+            long budgetMs = mcts.budgetMs(difficulty.equals("hard") ? hardBudgetMs : mediumBudgetMs);
+            MctsEngine.Search playouts = new MctsEngine.Search();
+            moveIndex = mcts.chooseMove(position, deadline(startNanos, budgetMs, boardRequest.getDeadlineMs()), playouts);
+            search.nodes = playouts.playouts;
+            source = MoveSource.MCTS;
+        }
+        if (moveIndex == -1 && searches) {
+            boolean hard = difficulty.equals("hard");
+            MoveResult searched = GridEngine.search(position, hard ? MAX_DEPTH_HARD : MAX_DEPTH_MEDIUM, maxDepth,
+                                                    deadline(startNanos, hard ? hardBudgetMs : mediumBudgetMs,
+                                                             boardRequest.getDeadlineMs()),
+                                                    search);
+            moveIndex = searched.moveIndex;
+            searchDepth = searched.depth;
+            complete = searched.complete;
+            source = MoveSource.MINIMAX;
+        }
+        if (moveIndex == -1) {
+            moveIndex = findRandomMove(position);
+            source = MoveSource.RANDOM;
+        }
+        if (source == MoveSource.IMMEDIATE_WIN || source == MoveSource.BLOCK) {
+            complete = true;
+        }
+
+        metrics.recordMove(difficulty, source, System.nanoTime() - startNanos, search.nodes, search.cutoffs, searchDepth);
+        BoardResponse response = new BoardResponse(null, moveIndex != -1, moveIndex, humanPlayer, searchDepth);
+        response.setComplete(complete);
+        return response;
+    }
+
+    /**
+     * Pick the AI's move for a position with the AI (side AI) to move. The position is not modified.
+     */
+    MoveResult chooseMove(Position requested, String requestedDifficulty, Long clientDeadlineMs) {
+        return chooseMove(requested, requestedDifficulty, clientDeadlineMs, NO_DEPTH_CAP);
+    }
+
+    /**
+     * As above, with iterative deepening stopped at maxDepth if that is below the difficulty's own limit
+     */
+    MoveResult chooseMove(Position requested, String requestedDifficulty, Long clientDeadlineMs, int maxDepth) {
+        long startNanos = System.nanoTime();
+        String difficulty = requestedDifficulty != null ? requestedDifficulty.toLowerCase() : "medium";
+
+        // Work on the canonical image so all 8 symmetric versions of a board share cached results
+        int symmetry = requested.canonicalSymmetry();
+        Position position = requested.transformed(symmetry);
 
         int moveIndex = -1;
+        MoveSource source = MoveSource.RANDOM;
+        Search search = new Search();
+        MctsEngine.Search playouts = new MctsEngine.Search();
+        MoveResult searched = null;
 
         switch (difficulty) {
             case "hard":
-                // Level 3: UNBEATABLE - Perfect Minimax with maximum depth
-                // First check for immediate wins
-                moveIndex = findImmediateWinningMove(board, aiMoves, playerMoves, aiPlayer, humanPlayer);
+                // Level 3: UNBEATABLE - Perfect play straight from the tablebase when it covers the position
+                moveIndex = tablebase.bestMove(position);
+                source = MoveSource.TABLEBASE;
+                if (moveIndex == -1) {
+                    // Otherwise check for immediate wins
+                    moveIndex = findImmediateWinningMove(position, AI);
+                    source = MoveSource.IMMEDIATE_WIN;
+                }
                 if (moveIndex == -1) {
                     // Block opponent's winning move
-                    moveIndex = findBlockingMove(board, playerMoves, aiMoves, humanPlayer, aiPlayer);
+                    moveIndex = findBlockingMove(position, HUMAN);
+                    source = MoveSource.BLOCK;
+                }
+                if (moveIndex == -1 && mcts.handles(difficulty)) {
+                    moveIndex = mcts.chooseMove(GridPosition.of(position),
+                                                deadline(startNanos, mcts.budgetMs(hardBudgetMs), clientDeadlineMs), playouts);
+                    source = MoveSource.MCTS;
                 }
                 if (moveIndex == -1) {
-                    // Use perfect Minimax
-                    MoveResult result = minimax(board, aiMoves, playerMoves, aiPlayer, humanPlayer, MAX_DEPTH_HARD, true, Integer.MIN_VALUE, Integer.MAX_VALUE);
-                    moveIndex = result.moveIndex;
+                    // Use perfect Minimax, deepening until the depth cap or the time budget
+                    searched = iterativeDeepening(position, Math.min(MAX_DEPTH_HARD, maxDepth),
+                                                  deadline(startNanos, hardBudgetMs, clientDeadlineMs), search);
+                    moveIndex = searched.moveIndex;
+                    source = MoveSource.MINIMAX;
                 }
                 break;
             case "medium":
                 // Level 2: VERY DIFFICULT - Always use Minimax with high depth, prioritize winning/blocking
                 // Always try to win first
-                moveIndex = findImmediateWinningMove(board, aiMoves, playerMoves, aiPlayer, humanPlayer);
+                moveIndex = findImmediateWinningMove(position, AI);
+                source = MoveSource.IMMEDIATE_WIN;
                 if (moveIndex == -1) {
                     // Always block opponent wins
-                    moveIndex = findBlockingMove(board, playerMoves, aiMoves, humanPlayer, aiPlayer);
+                    moveIndex = findBlockingMove(position, HUMAN);
+                    source = MoveSource.BLOCK;
+                }
+                if (moveIndex == -1 && mcts.handles(difficulty)) {
+                    moveIndex = mcts.chooseMove(GridPosition.of(position),
+                                                deadline(startNanos, mcts.budgetMs(mediumBudgetMs), clientDeadlineMs), playouts);
+                    source = MoveSource.MCTS;
                 }
                 if (moveIndex == -1) {
                     // Use Minimax with good depth
-                    MoveResult result = minimax(board, aiMoves, playerMoves, aiPlayer, humanPlayer, MAX_DEPTH_MEDIUM, true, Integer.MIN_VALUE, Integer.MAX_VALUE);
-                    moveIndex = result.moveIndex;
+                    searched = iterativeDeepening(position, Math.min(MAX_DEPTH_MEDIUM, maxDepth),
+                                                  deadline(startNanos, mediumBudgetMs, clientDeadlineMs), search);
+                    moveIndex = searched.moveIndex;
+                    source = MoveSource.MINIMAX;
                 }
                 break;
             case "easy":
             default:
                 // Level 1: Easy - Random or basic blocking
-                moveIndex = findImmediateWinningMove(board, aiMoves, playerMoves, aiPlayer, humanPlayer);
+                moveIndex = findImmediateWinningMove(position, AI);
+                source = MoveSource.IMMEDIATE_WIN;
                 if (moveIndex == -1) {
-                    moveIndex = findRandomMove(board);
+                    moveIndex = findRandomMove(position);
+                    source = MoveSource.RANDOM;
                 }
                 break;
         }
 
         // Fallback to random if all else fails (shouldn't happen)
         if (moveIndex == -1 || moveIndex < 0 || moveIndex >= BOARD_SIZE) {
-            moveIndex = findRandomMove(board);
+            moveIndex = findRandomMove(position);
+            source = MoveSource.RANDOM;
+        }
+
+        int searchDepth = searched != null ? searched.depth : 0;
+        long nodes = source == MoveSource.MCTS ? playouts.playouts : search.nodes;
+        metrics.recordMove(difficulty, source, System.nanoTime() - startNanos, nodes, search.cutoffs, searchDepth);
+        MoveResult result = new MoveResult(0, Symmetry.back(symmetry, moveIndex), searchDepth);
+        result.complete = switch (source) {
+            case TABLEBASE, IMMEDIATE_WIN, BLOCK -> true;
+            // Deepened all the way to the difficulty's own limit (or to a forced win) before the deadline
+            case MINIMAX -> !search.aborted && maxDepth >= (difficulty.equals("hard") ? MAX_DEPTH_HARD : MAX_DEPTH_MEDIUM);
+            default -> false;
+        };
+        return result;
+    }
+
+    /**
+     * Absolute nanoTime deadline: the difficulty's budget, tightened by the client's deadline if it sent one
+     */
+    private static long deadline(long startNanos, long budgetMs, Long clientDeadlineMs) {
+        long ms = clientDeadlineMs != null && clientDeadlineMs > 0 ? Math.min(budgetMs, clientDeadlineMs) : budgetMs;
+        return startNanos + ms * 1_000_000L;
+    }
+
+    /**
+     * Iterative deepening to the given depth with no deadline, on the position as given (no
+     * symmetry, tablebase or shortcuts), so tests can compare search settings by root move,
+     * score and nodes searched
+     */
+    MoveResult searchToDepth(Position position, int depth) {
+        return searchToDepth(position, depth, true);
+    }
+
+    /**
+     * As above; unordered, every node tries its table move and then the empty cells in index
+     * order, as the search did before orderMoves
+     */
+    MoveResult searchToDepth(Position position, int depth, boolean ordered) {
+        Search search = new Search();
+        search.ordered = ordered;
+        MoveResult result = iterativeDeepening(position, depth, Long.MAX_VALUE, search);
+        result.nodes = search.nodes;
+        return result;
+    }
+
+    /**
+     * Search depth 1, 2, 3, ... up to maxDepth and keep the move of the last depth that finished
+     * before the deadline. Depth 1 always completes so there is always a move.
+     */
+    private MoveResult iterativeDeepening(Position position, int maxDepth, long deadlineNanos, Search search) {
+        transpositionTable.newSearch();
+        MoveResult best = searchRoot(position, 1, Position.NONE, search);
+        search.deadlineNanos = deadlineNanos;
+        for (int depth = 2; depth <= maxDepth && best.score < WIN_SCORE; depth++) {
+            MoveResult result = searchRoot(position, depth, best.moveIndex, search);
+            if (search.aborted) {
+                break;
+            }
+            best = result;
+        }
+        return best;
+    }
+
+    /**
+     * Pack the request board and move histories into a Position with the AI to move
+     */
+    static Position toPosition(List<String> board, String aiPlayer, String humanPlayer,
+                               List<Integer> aiMoves, List<Integer> playerMoves) {
+        int aiMask = 0;
+        int humanMask = 0;
+        for (int i = 0; i < BOARD_SIZE && board != null && i < board.size(); i++) {
+            String cell = board.get(i);
+            if (aiPlayer.equals(cell)) {
+                aiMask |= 1 << i;
+            } else if (humanPlayer.equals(cell)) {
+                humanMask |= 1 << i;
+            }
+        }
+        return new Position(aiMask, humanMask, aiMoves, playerMoves, AI);
+    }
+
+    /**
+     * Pack an N x N request board into a GridPosition with the AI to move
+     */
+    static GridPosition toGridPosition(GridGeometry geometry, int vanishLength, List<String> board,
+                                       String aiPlayer, String humanPlayer,
+                                       List<Integer> aiMoves, List<Integer> playerMoves) {
+        long[] aiMask = new long[geometry.words];
+        long[] humanMask = new long[geometry.words];
+        for (int i = 0; i < geometry.cells && board != null && i < board.size(); i++) {
+            String cell = board.get(i);
+            if (aiPlayer.equals(cell)) {
+                GridGeometry.set(aiMask, 0, i);
+            } else if (humanPlayer.equals(cell)) {
+                GridGeometry.set(humanMask, 0, i);
+            }
+        }
+        return new GridPosition(geometry, vanishLength, aiMask, humanMask, aiMoves, playerMoves, AI);
+    }
+
+    /**
+     * Root of the minimax search; the only place a MoveResult is allocated.
+     * The previous iteration's best move is searched first, the rest only have to prove they
+     * are no better with a null window.
+     */
+    private MoveResult searchRoot(Position position, int depth, int firstMove, Search search) {
+        int empty = position.empty();
+        if (position.winner() != Position.NONE || empty == 0 || depth == 0) {
+            return new MoveResult(minimax(position, depth, true, Integer.MIN_VALUE, Integer.MAX_VALUE, search),
+                                  position.winner() != Position.NONE || empty == 0 ? -1 : Integer.numberOfTrailingZeros(empty),
+                                  depth);
+        }
+        if (searchPool != null && depth >= parallelMinDepth && Integer.bitCount(empty) > 1) {
+            return searchRootParallel(position, depth, firstMove, search);
+        }
+
+        int[] moves = new int[BOARD_SIZE];
+        int count = search.order(position, empty, firstMove, moves);
+        int alpha = Integer.MIN_VALUE;
+        int bestScore = Integer.MIN_VALUE;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int vanished = position.make(move);
+            int score = minimax(position, depth - 1, false, alpha, i == 0 ? Integer.MAX_VALUE : alpha + 1, search);
+            if (i > 0 && score > alpha && !search.aborted) {
+                score = minimax(position, depth - 1, false, alpha, Integer.MAX_VALUE, search);
+            }
+            position.unmake(move, vanished);
+            if (search.aborted) {
+                break;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+        return new MoveResult(bestScore, bestMove, depth);
+    }
+
+    /**
+     * Root search with the moves after the first split across the fork-join pool.
+     *
+     * The first move is searched serially for a bound; every other move is then searched on
+     * its own copy of the position with alpha set one below the best score known when it
+     * starts, and raises that shared bound when it finishes. A move only fails low if it is
+     * strictly worse than a move already searched, so every move that ties the best score is
+     * scored exactly, and taking the earliest of them in search order picks the same move as
+     * the serial loop. (Both modes read the shared transposition table, which other searches
+     * may have deepened, so the guarantee is for the same table contents.)
+     */
+    private MoveResult searchRootParallel(Position position, int depth, int firstMove, Search search) {
+        int[] moves = new int[BOARD_SIZE];
+        int count = search.order(position, position.empty(), firstMove, moves);
+
+        int vanished = position.make(moves[0]);
+        int firstScore = minimax(position, depth - 1, false, Integer.MIN_VALUE, Integer.MAX_VALUE, search);
+        position.unmake(moves[0], vanished);
+        if (search.aborted) {
+            return new MoveResult(firstScore, moves[0], depth);
         }
 
-        return new BoardResponse(null, moveIndex != -1, moveIndex, humanPlayer);
+        AtomicInteger alpha = new AtomicInteger(firstScore);
+        int[] scores = new int[count];
+        Search[] branches = new Search[count];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count - 1);
+        scores[0] = firstScore;
+        for (int i = 1; i < count; i++) {
+            int slot = i;
+            Search branch = search.branch();
+            branches[slot] = branch;
+            tasks.add(searchPool.submit(() -> {
+                Position copy = position.copy();
+                copy.make(moves[slot]);
+                int score = minimax(copy, depth - 1, false, alpha.get() - 1, Integer.MAX_VALUE, branch);
+                scores[slot] = score;
+                if (!branch.aborted) {
+                    alpha.accumulateAndGet(score, Math::max);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        int bestScore = Integer.MIN_VALUE;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                search.merge(branches[i]);
+            }
+            if (scores[i] > bestScore) {
+                bestScore = scores[i];
+                bestMove = moves[i];
+            }
+        }
+        return new MoveResult(bestScore, bestMove, depth);
     }
 
     /**
-     * Minimax algorithm with alpha-beta pruning and vanishing mechanic awareness
+     * Minimax algorithm with alpha-beta pruning and vanishing mechanic awareness.
+     * Moves are made and unmade in place on the packed position, so no node allocates.
+     * Results are shared with other searches through the transposition table.
      */
-    private MoveResult minimax(List<String> board, List<Integer> currentPlayerMoves, List<Integer> opponentMoves,
-                               String maximizingPlayer, String minimizingPlayer, int depth, boolean isMaximizing,
-                               int alpha, int beta) {
-        
+    int minimax(Position position, int depth, boolean isMaximizing, int alpha, int beta) {
+        return minimax(position, depth, isMaximizing, alpha, beta, new Search());
+    }
+
+    private int minimax(Position position, int depth, boolean isMaximizing, int alpha, int beta, Search search) {
+        // Past the deadline the whole iteration is thrown away, so any value will do
+        if (search.expired()) {
+            return 0;
+        }
+
         // Check for terminal states
-        String winner = checkWinner(board);
-        if (winner != null) {
-            if (winner.equals(maximizingPlayer)) {
-                return new MoveResult(WIN_SCORE + depth * 10, -1); // Prefer faster wins
+        int winner = position.winner();
+        if (winner != Position.NONE) {
+            if (winner == AI) {
+                return WIN_SCORE + depth * 10; // Prefer faster wins
             } else {
-                return new MoveResult(LOSE_SCORE - depth * 10, -1); // Prefer slower losses
+                return LOSE_SCORE - depth * 10; // Prefer slower losses
             }
         }
 
-        List<Integer> availableMoves = getAvailableMoves(board);
-        if (availableMoves.isEmpty() || depth == 0) {
+        int empty = position.empty();
+        if (empty == 0 || depth == 0) {
             // Evaluate position heuristically
-            int score = evaluatePosition(board, maximizingPlayer, minimizingPlayer);
-            return new MoveResult(score, availableMoves.isEmpty() ? -1 : availableMoves.get(0));
+            return evaluatePosition(position);
         }
 
+        // Reuse a stored result that searched at least as deep, or at least try its best move first.
+        // Entries are keyed by the canonical image, so the stored move is mapped back to this board.
+        int symmetry = position.canonicalSymmetry();
+        long key = position.hash(symmetry);
+        long entry = transpositionTable.probe(key);
+        int tableMove = Position.NONE;
+        if (entry != TranspositionTable.MISS) {
+            tableMove = Symmetry.back(symmetry, TranspositionTable.move(entry));
+            if (TranspositionTable.depth(entry) >= depth) {
+                int stored = fromTable(TranspositionTable.score(entry), depth);
+                switch (TranspositionTable.bound(entry)) {
+                    case TranspositionTable.EXACT -> { return stored; }
+                    case TranspositionTable.LOWER -> alpha = Math.max(alpha, stored);
+                    default -> beta = Math.min(beta, stored);
+                }
+                if (beta <= alpha) {
+                    return stored;
+                }
+            }
+        }
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+
+        int[] moves = search.moves[depth];
+        int count = search.order(position, empty, tableMove, moves);
+
+        int bestScore;
+        int bestMove = Position.NONE;
         if (isMaximizing) {
-            int bestScore = Integer.MIN_VALUE;
-            int bestMove = availableMoves.get(0);
-
-            for (int move : availableMoves) {
-                // Simulate move
-                List<String> newBoard = new ArrayList<>(board);
-                List<Integer> newPlayerMoves = new ArrayList<>(currentPlayerMoves);
-                
-                // Apply move with vanishing mechanic
-                applyMoveWithVanishing(newBoard, newPlayerMoves, move, maximizingPlayer);
-                
-                // Recursive call - swap moves since it's now minimizing player's turn
-                MoveResult result = minimax(newBoard, opponentMoves, newPlayerMoves, 
-                                           maximizingPlayer, minimizingPlayer, depth - 1, false, alpha, beta);
-                
-                if (result.score > bestScore) {
-                    bestScore = result.score;
+            bestScore = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                // Apply move with vanishing mechanic, search, then take it back
+                int vanished = position.make(move);
+                int score;
+                if (i == 0) {
+                    score = minimax(position, depth - 1, false, alpha, beta, search);
+                } else {
+                    // Principal-variation search: a null window is enough to show the move is no better
+                    score = minimax(position, depth - 1, false, alpha, alpha + 1, search);
+                    if (score > alpha && score < beta && !search.aborted) {
+                        score = minimax(position, depth - 1, false, alpha, beta, search);
+                    }
+                }
+                position.unmake(move, vanished);
+                if (search.aborted) {
+                    return 0; // Never store a partial result
+                }
+
+                if (score > bestScore) {
+                    bestScore = score;
                     bestMove = move;
                 }
-                
+
                 // Alpha-beta pruning
                 alpha = Math.max(alpha, bestScore);
                 if (beta <= alpha) {
+                    search.cutoffs++;
                     break; // Beta cut-off
                 }
             }
-            return new MoveResult(bestScore, bestMove);
         } else {
-            int bestScore = Integer.MAX_VALUE;
-            int bestMove = availableMoves.get(0);
-
-            for (int move : availableMoves) {
-                // Simulate move
-                List<String> newBoard = new ArrayList<>(board);
-                List<Integer> newOpponentMoves = new ArrayList<>(opponentMoves);
-                
-                // Apply move with vanishing mechanic
-                applyMoveWithVanishing(newBoard, newOpponentMoves, move, minimizingPlayer);
-                
-                // Recursive call - swap moves since it's now maximizing player's turn
-                MoveResult result = minimax(newBoard, currentPlayerMoves, newOpponentMoves, 
-                                           maximizingPlayer, minimizingPlayer, depth - 1, true, alpha, beta);
-                
-                if (result.score < bestScore) {
-                    bestScore = result.score;
+            bestScore = Integer.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                int vanished = position.make(move);
+                int score;
+                if (i == 0) {
+                    score = minimax(position, depth - 1, true, alpha, beta, search);
+                } else {
+                    score = minimax(position, depth - 1, true, beta - 1, beta, search);
+                    if (score < beta && score > alpha && !search.aborted) {
+                        score = minimax(position, depth - 1, true, alpha, beta, search);
+                    }
+                }
+                position.unmake(move, vanished);
+                if (search.aborted) {
+                    return 0;
+                }
+
+                if (score < bestScore) {
+                    bestScore = score;
                     bestMove = move;
                 }
-                
+
                 // Alpha-beta pruning
                 beta = Math.min(beta, bestScore);
                 if (beta <= alpha) {
+                    search.cutoffs++;
                     break; // Alpha cut-off
                 }
             }
-            return new MoveResult(bestScore, bestMove);
         }
+
+        int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER
+                  : bestScore >= originalBeta ? TranspositionTable.LOWER
+                  : TranspositionTable.EXACT;
+        transpositionTable.store(key, toTable(bestScore, depth), depth, bound, Symmetry.cell(symmetry, bestMove));
+        return bestScore;
+    }
+
+    /**
+     * Write the empty cells into moves in search order and return how many there are:
+     * the table or principal-variation move, cells that complete a line for the side to move,
+     * cells that complete one for the opponent, then the rest in center, corner, edge order.
+     */
+    static int orderMoves(Position position, int empty, int preferred, int[] moves) {
+        int side = position.sideToMove();
+        int remaining = empty;
+        int n = 0;
+        if (preferred != Position.NONE && (remaining & (1 << preferred)) != 0) {
+            moves[n++] = preferred;
+            remaining &= ~(1 << preferred);
+        }
+        int wins = completingCells(position.mask(side), remaining);
+        n = append(moves, n, wins);
+        remaining &= ~wins;
+        int blocks = completingCells(position.mask(side ^ 1), remaining);
+        n = append(moves, n, blocks);
+        remaining &= ~blocks;
+        for (int cell : STATIC_ORDER) {
+            if ((remaining & (1 << cell)) != 0) {
+                moves[n++] = cell;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * The preferred move, then the other empty cells in index order
+     */
+    static int indexOrder(int empty, int preferred, int[] moves) {
+        int n = 0;
+        if (preferred != Position.NONE && (empty & (1 << preferred)) != 0) {
+            moves[n++] = preferred;
+            empty &= ~(1 << preferred);
+        }
+        return append(moves, n, empty);
+    }
+
+    /**
+     * Empty cells that would complete a line for the given mask
+     */
+    static int completingCells(int mask, int empty) {
+        return Position.completing(mask) & empty;
+    }
+
+    private static int append(int[] moves, int n, int cells) {
+        for (int m = cells; m != 0; m &= m - 1) {
+            moves[n++] = Integer.numberOfTrailingZeros(m);
+        }
+        return n;
+    }
+
+    private static int toTable(int score, int depth) {
+        if (score >= WIN_SCORE) return score + (TABLE_DEPTH - depth) * 10;
+        if (score <= LOSE_SCORE) return score - (TABLE_DEPTH - depth) * 10;
+        return score;
+    }
+
+    private static int fromTable(int score, int depth) {
+        if (score >= WIN_SCORE) return score - (TABLE_DEPTH - depth) * 10;
+        if (score <= LOSE_SCORE) return score + (TABLE_DEPTH - depth) * 10;
+        return score;
     }
 
     /**
      * Evaluate position heuristically when depth limit is reached
      */
-    private int evaluatePosition(List<String> board, String maximizingPlayer, String minimizingPlayer) {
+    int evaluatePosition(Position position) {
         int score = 0;
-        
+        int aiMask = position.mask(AI);
+        int humanMask = position.mask(HUMAN);
+
         // Check each winning line
-        for (int[] line : WINNING_LINES) {
-            int maxCount = 0;
-            int minCount = 0;
-            
-            for (int idx : line) {
-                String cell = board.get(idx);
-                if (cell != null) {
-                    if (cell.equals(maximizingPlayer)) {
-                        maxCount++;
-                    } else if (cell.equals(minimizingPlayer)) {
-                        minCount++;
-                    }
-                }
-            }
-            
+        for (int line : Position.LINE_MASKS) {
+            int maxCount = Integer.bitCount(aiMask & line);
+            int minCount = Integer.bitCount(humanMask & line);
+
             // Reward positions where maximizing player has advantage
             if (maxCount > 0 && minCount == 0) {
                 score += maxCount * maxCount * 10; // Exponential bonus for multiple pieces
@@ -197,171 +720,140 @@ public class AiService {
                 score -= minCount * minCount * 10;
             }
         }
-        
-        return score;
-    }
 
-    /**
-     * Apply a move with the vanishing mechanic: if player has 4+ moves, remove oldest
-     */
-    private void applyMoveWithVanishing(List<String> board, List<Integer> moves, int moveIndex, String player) {
-        // Place the new mark
-        board.set(moveIndex, player);
-        
-        // Check for win before adding to moves list
-        String winner = checkWinner(board);
-        
-        // Add the move to the history
-        moves.add(moveIndex);
-        
-        // If there's no winner and we have more than 3 moves, remove the oldest
-        if (winner == null && moves.size() > 3) {
-            int oldestMove = moves.remove(0);
-            board.set(oldestMove, null);
-        }
+        return score;
     }
 
     /**
-     * Check for a winner on the board
+     * Check for a winner on the board: the side index, or Position.NONE
      */
-    private String checkWinner(List<String> board) {
-        for (int[] line : WINNING_LINES) {
-            String first = board.get(line[0]);
-            if (first != null && 
-                first.equals(board.get(line[1])) && 
-                first.equals(board.get(line[2]))) {
-                return first;
-            }
-        }
-        return null;
+    int checkWinner(Position position) {
+        return position.winner();
     }
 
     /**
      * Find immediate winning move (considering vanishing mechanic)
-     * Also checks for threats that can be blocked
+     * Also checks for moves that create a double threat.
+     * Both come from the 512-entry line tables, so this is a handful of lookups per empty cell.
      */
-    private int findImmediateWinningMove(List<String> board, List<Integer> currentMoves, 
-                                        List<Integer> opponentMoves, String player, String opponent) {
-        List<Integer> availableMoves = getAvailableMoves(board);
-        
-        // First, check for immediate wins
-        for (int move : availableMoves) {
-            List<String> testBoard = new ArrayList<>(board);
-            List<Integer> testMoves = new ArrayList<>(currentMoves);
-            
-            applyMoveWithVanishing(testBoard, testMoves, move, player);
-            
-            String winner = checkWinner(testBoard);
-            if (winner != null && winner.equals(player)) {
-                return move;
-            }
+    int findImmediateWinningMove(Position position, int side) {
+        int empty = position.empty();
+
+        // First, check for immediate wins (the win is checked before the oldest mark vanishes)
+        int wins = completingCells(position.mask(side), empty);
+        if (wins != 0) {
+            return Integer.numberOfTrailingZeros(wins);
         }
-        
-        // Check for creating double threats (two ways to win)
-        for (int move : availableMoves) {
-            List<String> testBoard = new ArrayList<>(board);
-            List<Integer> testMoves = new ArrayList<>(currentMoves);
-            applyMoveWithVanishing(testBoard, testMoves, move, player);
-            
-            int threats = countWinningThreats(testBoard, player);
-            if (threats >= 2) {
+
+        // Check for creating double threats (two ways to win), after our oldest mark vanishes
+        int other = position.mask(side ^ 1);
+        int vanished = position.nextToVanish(side);
+        int kept = vanished == Position.NONE ? Position.FULL_MASK : Position.FULL_MASK & ~(1 << vanished);
+        for (int m = empty; m != 0; m &= m - 1) {
+            int move = Integer.numberOfTrailingZeros(m);
+            int after = (position.mask(side) | (1 << move)) & kept;
+            if (countWinningThreats(after, other) >= 2) {
                 return move; // Creating multiple threats
             }
         }
-        
+
         return -1;
     }
 
     /**
      * Find a move that blocks the opponent from winning (considering vanishing mechanic)
      */
-    private int findBlockingMove(List<String> board, List<Integer> opponentMoves, List<Integer> myMoves,
-                                 String opponent, String me) {
-        List<Integer> availableMoves = getAvailableMoves(board);
-        
-        // Check if opponent can win on their next move
-        for (int move : availableMoves) {
-            List<String> testBoard = new ArrayList<>(board);
-            List<Integer> testOpponentMoves = new ArrayList<>(opponentMoves);
-            
-            // Simulate opponent making this move
-            applyMoveWithVanishing(testBoard, testOpponentMoves, move, opponent);
-            
-            // Check if this move results in opponent winning
-            String winner = checkWinner(testBoard);
-            if (winner != null && winner.equals(opponent)) {
-                // Block this move!
-                return move;
-            }
-        }
-        
-        // Also check for double threats that need blocking
-        for (int move : availableMoves) {
-            List<String> testBoard = new ArrayList<>(board);
-            List<Integer> testOpponentMoves = new ArrayList<>(opponentMoves);
-            applyMoveWithVanishing(testBoard, testOpponentMoves, move, opponent);
-            
-            int threats = countWinningThreats(testBoard, opponent);
-            if (threats >= 2) {
-                // Block this move to prevent multiple threats
-                return move;
-            }
-        }
-        
-        return -1;
+    int findBlockingMove(Position position, int opponent) {
+        // Same scan from the opponent's point of view: their winning or forking cell is ours to take
+        return findImmediateWinningMove(position, opponent);
     }
 
     /**
-     * Count how many ways a player can win in their next move
+     * Count how many empty cells would complete a line for the given mask
      */
-    private int countWinningThreats(List<String> board, String player) {
-        int threatCount = 0;
-        List<Integer> availableMoves = getAvailableMoves(board);
-        
-        for (int move : availableMoves) {
-            List<String> testBoard = new ArrayList<>(board);
-            testBoard.set(move, player);
-            
-            if (checkWinner(testBoard) != null && checkWinner(testBoard).equals(player)) {
-                threatCount++;
-            }
-        }
-        
-        return threatCount;
+    int countWinningThreats(int mask, int otherMask) {
+        return Integer.bitCount(completingCells(mask, ~(mask | otherMask) & Position.FULL_MASK));
     }
 
     /**
-     * Get all available moves (empty cells)
+     * Find a random available move
      */
-    private List<Integer> getAvailableMoves(List<String> board) {
-        List<Integer> moves = new ArrayList<>();
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            if (board.get(i) == null) {
-                moves.add(i);
-            }
+    private int findRandomMove(Position position) {
+        int empty = position.empty();
+        int available = Integer.bitCount(empty);
+        if (available == 0) return -1;
+        for (int skip = random.nextInt(available); skip > 0; skip--) {
+            empty &= empty - 1;
         }
-        return moves;
+        return Integer.numberOfTrailingZeros(empty);
     }
 
-    /**
-     * Find a random available move
-     */
-    private int findRandomMove(List<String> board) {
-        List<Integer> emptyCells = getAvailableMoves(board);
-        if (emptyCells.isEmpty()) return -1;
-        return emptyCells.get(random.nextInt(emptyCells.size()));
+    private int findRandomMove(GridPosition position) {
+        int cells = position.geometry.cells;
+        int available = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (position.isEmpty(cell)) available++;
+        }
+        if (available == 0) return -1;
+        for (int cell = 0, skip = random.nextInt(available); cell < cells; cell++) {
+            if (position.isEmpty(cell) && skip-- == 0) return cell;
+        }
+        return -1;
     }
 
     /**
      * Helper class to store minimax results
      */
-    private static class MoveResult {
+    static class MoveResult {
         int score;
         int moveIndex;
+        int depth;
+        boolean complete; // Same answer every time: not cut short by a deadline or depth cap, not sampled
+        long nodes;       // Set by searchToDepth only
 
-        MoveResult(int score, int moveIndex) {
+        MoveResult(int score, int moveIndex, int depth) {
             this.score = score;
             this.moveIndex = moveIndex;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Per-search state: the deadline, checked every DEADLINE_CHECK_INTERVAL nodes, plain
+     * counters that are handed to the metrics once per move, and a move buffer per depth so
+     * nodes do not allocate. A parallel root gives each thread its own branch and merges its
+     * counters back afterwards.
+     */
+    private static class Search {
+        long deadlineNanos = Long.MAX_VALUE;
+        long nodes;
+        long cutoffs;
+        boolean aborted;
+        boolean ordered = true; // Off only to measure what orderMoves saves
+        final int[][] moves = new int[TABLE_DEPTH + 1][BOARD_SIZE];
+
+        int order(Position position, int empty, int preferred, int[] moves) {
+            return ordered ? orderMoves(position, empty, preferred, moves) : indexOrder(empty, preferred, moves);
+        }
+
+        boolean expired() {
+            if (!aborted && ++nodes % DEADLINE_CHECK_INTERVAL == 0 && deadlineNanos != Long.MAX_VALUE) {
+                aborted = System.nanoTime() - deadlineNanos > 0;
+            }
+            return aborted;
+        }
+
+        Search branch() {
+            Search branch = new Search();
+            branch.deadlineNanos = deadlineNanos;
+            branch.ordered = ordered;
+            return branch;
+        }
+
+        void merge(Search branch) {
+            nodes += branch.nodes;
+            cutoffs += branch.cutoffs;
+            aborted |= branch.aborted;
         }
     }
-}
\ No newline at end of file
+}
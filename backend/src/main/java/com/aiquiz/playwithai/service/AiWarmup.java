@@ -0,0 +1,114 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs AiService over a fixed set of positions at every difficulty as soon as the app is
+ * up, so class loading, JIT compilation and the transposition table are warm before the
+ * first real move. /api/game/ready waits for it.
+ *
+ * The positions come from seeded random games, so every start warms the same code paths.
+ * Searches record into their own metrics, so warm-up moves never show up as player latency.
+ */
+@Component
+public class AiWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(AiWarmup.class);
+
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+    private static final int MAX_PLIES = 16;
+
+    private final AiService aiService;
+    private final int positionCount;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile long warmupMs = -1;
+    private volatile int searched;
+
+    @Autowired
+    public AiWarmup(AiService aiService, @Value("${ai.warmup.positions:200}") int positionCount) {
+        this.aiService = aiService.withMetrics(AiMetrics.standalone());
+        this.positionCount = positionCount;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::run, "ai-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        try {
+            for (Position position : positions(positionCount, new Random(2024))) {
+                for (String difficulty : DIFFICULTIES) {
+                    aiService.chooseMove(position, difficulty, null);
+                    searched++;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("AI warm-up stopped early: {}", e.getMessage());
+        } finally {
+            warmupMs = (System.nanoTime() - start) / 1_000_000;
+            done.countDown();
+            log.info("AI warm-up: {} searches in {} ms", searched, warmupMs);
+        }
+    }
+
+    /**
+     * Positions with the AI to move, taken along random games from the empty board
+     */
+    static List<Position> positions(int count, Random random) {
+        List<Position> positions = new ArrayList<>(count);
+        while (positions.size() < count) {
+            Position position = new Position(0, 0, null, null, random.nextBoolean() ? AiService.AI : AiService.HUMAN);
+            for (int ply = 0; ply < MAX_PLIES && position.winner() == Position.NONE && positions.size() < count; ply++) {
+                if (position.sideToMove() == AiService.AI) {
+                    positions.add(position.copy());
+                }
+                int empty = position.empty();
+                for (int skip = random.nextInt(Integer.bitCount(empty)); skip > 0; skip--) {
+                    empty &= empty - 1;
+                }
+                position.make(Integer.numberOfTrailingZeros(empty));
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Wait up to timeoutMs for the warm-up; true once it has finished
+     */
+    public boolean awaitReady(long timeoutMs) {
+        try {
+            return done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public boolean isReady() {
+        return done.getCount() == 0;
+    }
+
+    public long getWarmupMs() {
+        return warmupMs;
+    }
+
+    public int getSearched() {
+        return searched;
+    }
+}
@@ -0,0 +1,60 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the first database contact off the startup path.
+ *
+ * Flyway hands its migration to this strategy during context refresh; it is run on a
+ * background thread once the application is ready, which also opens the first Hikari
+ * connection. Game endpoints never wait for it; leaderboard code calls awaitMigrated().
+ */
+@Component
+public class DatabaseStartup implements FlywayMigrationStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseStartup.class);
+
+    private final CompletableFuture<Void> migrated = new CompletableFuture<>();
+    private volatile Flyway flyway;
+
+    @Override
+    public void migrate(Flyway flyway) {
+        this.flyway = flyway;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::runMigration, "db-startup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void runMigration() {
+        long start = System.nanoTime();
+        try {
+            if (flyway != null) {
+                flyway.migrate();
+            }
+            migrated.complete(null);
+            log.info("Database ready in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Database migration failed; leaderboard requests will fail until restart", e);
+            migrated.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Block until the schema is migrated; rethrows the migration failure if there was one
+     */
+    public void awaitMigrated() {
+        migrated.join();
+    }
+}
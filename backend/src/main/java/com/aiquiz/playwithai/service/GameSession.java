@@ -0,0 +1,129 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One server-side game against the AI.
+ * The packed position lives here between turns, so a move request only has to carry a cell index.
+ */
+public class GameSession {
+
+    private final String id;
+    private final String aiMark;
+    private final String humanMark;
+    private final String difficulty;
+    final Position position; // AI is side AiService.AI, human is side AiService.HUMAN
+    private String winner;   // "X", "O" or null while the game is running
+    private volatile long lastAccessMillis;
+    private boolean ended; // Guarded by this; set by GameSessionService.end, never cleared
+
+    GameSession(String id, String aiMark, String difficulty, Position position) {
+        this.id = id;
+        this.aiMark = aiMark;
+        this.humanMark = aiMark.equals("X") ? "O" : "X";
+        this.difficulty = difficulty;
+        this.position = position;
+        this.lastAccessMillis = System.currentTimeMillis();
+        int side = position.winner();
+        this.winner = side == Position.NONE ? null : side == AiService.AI ? aiMark : humanMark;
+    }
+
+    /**
+     * Rebuild a session from what a GameSessionPersistence stored
+     */
+    public static GameSession restore(String id, String aiMark, String difficulty, List<String> board,
+                                      List<Integer> playerMoves, List<Integer> aiMoves, boolean aiToMove) {
+        String humanMark = aiMark.equals("X") ? "O" : "X";
+        Position marks = AiService.toPosition(board, aiMark, humanMark, aiMoves, playerMoves);
+        Position position = new Position(marks.mask(AiService.AI), marks.mask(AiService.HUMAN), aiMoves, playerMoves,
+                                         aiToMove ? AiService.AI : AiService.HUMAN);
+        return new GameSession(id, aiMark, difficulty, position);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getAiMark() {
+        return aiMark;
+    }
+
+    public String getHumanMark() {
+        return humanMark;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public String getWinner() {
+        return winner;
+    }
+
+    public boolean isGameOver() {
+        return winner != null;
+    }
+
+    boolean isEnded() {
+        return ended;
+    }
+
+    void markEnded() {
+        ended = true;
+    }
+
+    public boolean isAiToMove() {
+        return position.sideToMove() == AiService.AI;
+    }
+
+    public List<String> getBoard() {
+        List<String> board = new ArrayList<>(Arrays.asList(new String[Position.BOARD_SIZE]));
+        for (int i = 0; i < Position.BOARD_SIZE; i++) {
+            if ((position.mask(AiService.AI) & (1 << i)) != 0) {
+                board.set(i, aiMark);
+            } else if ((position.mask(AiService.HUMAN) & (1 << i)) != 0) {
+                board.set(i, humanMark);
+            }
+        }
+        return board;
+    }
+
+    public List<Integer> getAiMoves() {
+        return queue(AiService.AI);
+    }
+
+    public List<Integer> getPlayerMoves() {
+        return queue(AiService.HUMAN);
+    }
+
+    private List<Integer> queue(int side) {
+        List<Integer> moves = new ArrayList<>(position.count(side));
+        for (int i = 0; i < position.count(side); i++) {
+            moves.add(position.queued(side, i));
+        }
+        return moves;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Play a cell for the side to move; returns true if that completed a line
+     */
+    boolean play(int cell) {
+        String mark = isAiToMove() ? aiMark : humanMark;
+        position.make(cell);
+        if (Position.isWin(position.mask(position.sideToMove() ^ 1))) {
+            winner = mark;
+            return true;
+        }
+        return false;
+    }
+}
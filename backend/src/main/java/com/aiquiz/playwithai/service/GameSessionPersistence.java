@@ -0,0 +1,16 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.Optional;
+
+/**
+ * Durable backing for game sessions, so games survive eviction from memory or a restart.
+ * Without an implementation bean, sessions only live in memory.
+ */
+public interface GameSessionPersistence {
+
+    void save(GameSession session);
+
+    Optional<GameSession> load(String id);
+
+    void delete(String id);
+}
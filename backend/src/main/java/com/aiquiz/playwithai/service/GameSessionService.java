@@ -0,0 +1,206 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.aiquiz.playwithai.model.SessionResponse;
+
+/**
+ * Server-side games: start a game, then send one cell index per turn and get the AI's reply.
+ *
+ * Sessions are kept in a bounded, access-ordered map. Sessions idle for longer than the
+ * timeout, or the least recently used once the map is full, are dropped from memory; if a
+ * GameSessionPersistence bean exists they are written through to it and reloaded on demand.
+ * The transposition table is shared, so each turn starts with the entries of the last search.
+ */
+@Service
+public class GameSessionService {
+
+    private final AiService aiService;
+    private final AiComputePool computePool;
+    private final GameSessionPersistence persistence; // null when sessions are memory-only
+    private final long idleTimeoutMillis;
+    private final Map<String, GameSession> sessions;
+
+    @Autowired
+    public GameSessionService(AiService aiService, AiComputePool computePool, ObjectProvider<GameSessionPersistence> persistence,
+                              @Value("${ai.sessions.max:10000}") int maxSessions,
+                              @Value("${ai.sessions.idle-timeout-minutes:30}") long idleTimeoutMinutes) {
+        this.aiService = aiService;
+        this.computePool = computePool;
+        this.persistence = persistence.getIfAvailable();
+        this.idleTimeoutMillis = idleTimeoutMinutes * 60_000L;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GameSession> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    /**
+     * Start a game; if the AI starts, its first move is in the response
+     */
+    public SessionResponse start(String difficulty, String aiMark, boolean aiStarts) {
+        GameSession session = newSession(difficulty, aiMark, aiStarts);
+        return aiStarts ? computePool.call(maxDepth -> opening(session, maxDepth))
+                        : opening(session, AiService.NO_DEPTH_CAP);
+    }
+
+    /**
+     * As start, without blocking the caller while the AI picks its first move
+     */
+    public CompletableFuture<SessionResponse> startAsync(String difficulty, String aiMark, boolean aiStarts) {
+        GameSession session = newSession(difficulty, aiMark, aiStarts);
+        return aiStarts ? computePool.submit(maxDepth -> opening(session, maxDepth))
+                        : CompletableFuture.completedFuture(opening(session, AiService.NO_DEPTH_CAP));
+    }
+
+    private GameSession newSession(String difficulty, String aiMark, boolean aiStarts) {
+        String mark = "X".equals(aiMark) ? "X" : "O";
+        Position position = new Position(0, 0, null, null, aiStarts ? AiService.AI : AiService.HUMAN);
+        return new GameSession(UUID.randomUUID().toString(), mark,
+                               difficulty != null ? difficulty.toLowerCase() : "medium", position);
+    }
+
+    private SessionResponse opening(GameSession session, int maxDepth) {
+        synchronized (session) {
+            SessionResponse response = session.isAiToMove() ? aiTurn(session, maxDepth) : response(session, -1, 0);
+            save(session);
+            return response;
+        }
+    }
+
+    /**
+     * Apply the human's move and answer with the AI's reply.
+     *
+     * @throws NoSuchElementException   if there is no such game
+     * @throws IllegalStateException    if the game is over or it is not the human's turn
+     * @throws IllegalArgumentException if the cell is off the board or taken
+     * @throws AiBusyException          if the AI pool is full (nothing has been played)
+     */
+    public SessionResponse play(String id, int index) {
+        // The whole turn runs on the AI pool so a rejected turn leaves the game untouched
+        return computePool.call(maxDepth -> playTurn(id, index, maxDepth));
+    }
+
+    /**
+     * As play, without blocking the caller; the future fails with the same exceptions
+     */
+    public CompletableFuture<SessionResponse> playAsync(String id, int index) {
+        return computePool.submit(maxDepth -> playTurn(id, index, maxDepth));
+    }
+
+    private SessionResponse playTurn(String id, int index, int maxDepth) {
+        GameSession session = find(id);
+        synchronized (session) {
+            if (session.isGameOver()) {
+                throw new IllegalStateException("Game " + id + " is already over");
+            }
+            if (session.isAiToMove()) {
+                throw new IllegalStateException("It is not your turn");
+            }
+            if (index < 0 || index >= Position.BOARD_SIZE || (session.position.empty() & (1 << index)) == 0) {
+                throw new IllegalArgumentException("Cell " + index + " is not available");
+            }
+
+            SessionResponse response = session.play(index) ? response(session, -1, 0) : aiTurn(session, maxDepth);
+            save(session);
+            return response;
+        }
+    }
+
+    public void end(String id) {
+        GameSession session;
+        synchronized (sessions) {
+            session = sessions.remove(id);
+        }
+        if (session != null) {
+            // Waits for a turn in progress, whose save then is the last; any later one is skipped
+            synchronized (session) {
+                session.markEnded();
+            }
+        }
+        if (persistence != null) {
+            persistence.delete(id);
+        }
+    }
+
+    public int activeSessions() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    private SessionResponse aiTurn(GameSession session, int maxDepth) {
+        AiService.MoveResult result = aiService.chooseMove(session.position, session.getDifficulty(), null, maxDepth);
+        if (result.moveIndex == -1) {
+            return response(session, -1, result.depth);
+        }
+        session.play(result.moveIndex);
+        return response(session, result.moveIndex, result.depth);
+    }
+
+    private static SessionResponse response(GameSession session, int aiMove, int searchDepth) {
+        return new SessionResponse(session.getId(), aiMove, session.isGameOver(), session.getWinner(), searchDepth);
+    }
+
+    private GameSession find(String id) {
+        GameSession session;
+        synchronized (sessions) {
+            evictIdle();
+            session = sessions.get(id);
+        }
+        if (session == null && persistence != null) {
+            session = persistence.load(id).orElse(null);
+            if (session != null) {
+                synchronized (sessions) {
+                    GameSession raced = sessions.putIfAbsent(id, session);
+                    session = raced != null ? raced : session;
+                }
+            }
+        }
+        if (session == null) {
+            throw new NoSuchElementException("No game " + id);
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Keep the session after a turn; callers hold its lock. A game ended meanwhile stays ended.
+     */
+    private void save(GameSession session) {
+        if (session.isEnded()) {
+            return;
+        }
+        session.touch();
+        synchronized (sessions) {
+            evictIdle();
+            sessions.put(session.getId(), session);
+        }
+        if (persistence != null) {
+            persistence.save(session);
+        }
+    }
+
+    /**
+     * The map is in access order, so idle sessions are all at the front
+     */
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<GameSession> it = sessions.values().iterator();
+        while (it.hasNext() && it.next().getLastAccessMillis() < cutoff) {
+            it.remove();
+        }
+    }
+}
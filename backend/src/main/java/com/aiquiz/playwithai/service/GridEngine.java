@@ -0,0 +1,252 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.Arrays;
+
+import com.aiquiz.playwithai.service.AiService.MoveResult;
+
+/**
+ * Alpha-beta search for boards other than the classic 3x3 (see GridGeometry).
+ *
+ * The 3x3 engine's tablebase, symmetries and transposition table are built for 9 cells,
+ * so this search keeps its own, simpler tools: only empty cells next to a mark are tried,
+ * a side that can complete a line does so, a side facing one blocks it, and the rest go
+ * center first. Depth is scaled down with the branching factor (scaledDepth) and iterative
+ * deepening stops at the same per-move deadline as the 3x3 search.
+ */
+final class GridEngine {
+
+    private static final int CLASSIC_BRANCHING = 9;
+    private static final int MIN_DEPTH = 2;
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+    // Leaf scores stay clear of mate scores, which also carry a depth bonus on top of WIN_SCORE
+    static final int MAX_EVALUATION = AiService.WIN_SCORE - 100;
+
+    private GridEngine() {
+    }
+
+    /**
+     * The largest depth whose full tree over this many candidate moves is no bigger than
+     * the 3x3 board's full tree at baseDepth, so larger boards search shallower
+     */
+    static int scaledDepth(int baseDepth, int branching) {
+        if (branching <= CLASSIC_BRANCHING) return baseDepth;
+        int depth = (int) (baseDepth * Math.log(CLASSIC_BRANCHING) / Math.log(branching));
+        return Math.max(MIN_DEPTH, Math.min(baseDepth, depth));
+    }
+
+    /**
+     * Cell where the side completes a line, or -1
+     */
+    static int findCompletingCell(GridPosition position, int side) {
+        GridGeometry geometry = position.geometry;
+        for (int cell : geometry.centerOrder) {
+            if (position.isEmpty(cell) && position.completesLine(side, cell)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Iterative deepening up to baseDepth scaled for this board (and no deeper than maxDepth),
+     * keeping the move of the deepest iteration that finished before the deadline.
+     * Depth 1 always completes so there is always a move, unless the game is already over.
+     */
+    static MoveResult search(GridPosition position, int baseDepth, int maxDepth, long deadlineNanos, Search search) {
+        GridGeometry geometry = position.geometry;
+        int winner = position.winner();
+        if (winner != Position.NONE) {
+            return new MoveResult(winner == AiService.AI ? AiService.WIN_SCORE : AiService.LOSE_SCORE, -1, 0);
+        }
+        search.near = new long[geometry.words];
+        int[] moves = new int[geometry.cells];
+        int count = candidates(position, moves, search.near);
+        if (count == 0) {
+            return new MoveResult(0, -1, 0);
+        }
+        int fullDepth = scaledDepth(baseDepth, count);
+        int depthLimit = Math.max(1, Math.min(fullDepth, maxDepth));
+        search.moves = new int[depthLimit][geometry.cells];
+
+        MoveResult best = searchRoot(position, moves, count, 1, search);
+        search.deadlineNanos = deadlineNanos;
+        for (int depth = 2; depth <= depthLimit && best.score < AiService.WIN_SCORE; depth++) {
+            // Best move of the last iteration first
+            for (int i = 0; i < count; i++) {
+                if (moves[i] == best.moveIndex) {
+                    System.arraycopy(moves, 0, moves, 1, i);
+                    moves[0] = best.moveIndex;
+                    break;
+                }
+            }
+            MoveResult result = searchRoot(position, moves, count, depth, search);
+            if (search.aborted) {
+                break;
+            }
+            best = result;
+        }
+        // Neither the deadline nor a caller's depth cap (a busy pool) stopped it short
+        best.complete = !search.aborted && maxDepth >= fullDepth;
+        return best;
+    }
+
+    private static MoveResult searchRoot(GridPosition position, int[] moves, int count, int depth, Search search) {
+        int alpha = Integer.MIN_VALUE;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score;
+            if (position.completesLine(position.sideToMove(), move)) {
+                score = AiService.WIN_SCORE + (depth - 1) * 10;
+            } else {
+                int vanished = position.make(move);
+                score = minimax(position, depth - 1, alpha, Integer.MAX_VALUE, search);
+                position.unmake(move, vanished);
+            }
+            if (search.aborted) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+            }
+        }
+        return new MoveResult(alpha, bestMove, depth);
+    }
+
+    /**
+     * Minimax with alpha-beta pruning, maximizing for the AI; moves are made and unmade in place
+     */
+    private static int minimax(GridPosition position, int depth, int alpha, int beta, Search search) {
+        if (search.expired()) {
+            return 0;
+        }
+        int side = position.sideToMove();
+        boolean maximizing = side == AiService.AI;
+        int[] moves = search.moves[depth];
+        int count = candidates(position, moves, search.near);
+        if (count == 0) {
+            return 0; // Full board: a draw
+        }
+        // A side that can complete a line wins on the spot (checked before any mark vanishes)
+        for (int i = 0; i < count; i++) {
+            if (position.completesLine(side, moves[i])) {
+                return maximizing ? AiService.WIN_SCORE + (depth - 1) * 10 : AiService.LOSE_SCORE - (depth - 1) * 10;
+            }
+        }
+        if (depth == 0) {
+            return evaluate(position);
+        }
+        count = forcedBlocks(position, side ^ 1, moves, count);
+
+        int bestScore = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int vanished = position.make(move);
+            int score = minimax(position, depth - 1, alpha, beta, search);
+            position.unmake(move, vanished);
+            if (search.aborted) {
+                return 0;
+            }
+            if (maximizing) {
+                bestScore = Math.max(bestScore, score);
+                alpha = Math.max(alpha, bestScore);
+            } else {
+                bestScore = Math.min(bestScore, score);
+                beta = Math.min(beta, bestScore);
+            }
+            if (beta <= alpha) {
+                search.cutoffs++;
+                break;
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Empty cells next to any mark (the center on an empty board), center first.
+     * Returns how many were written; near is scratch space of geometry.words longs.
+     */
+    static int candidates(GridPosition position, int[] moves, long[] near) {
+        GridGeometry geometry = position.geometry;
+        int words = geometry.words;
+        Arrays.fill(near, 0L);
+        boolean anyMark = false;
+        for (int w = 0; w < words; w++) {
+            for (long m = position.word(0, w) | position.word(1, w); m != 0; m &= m - 1) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(m);
+                for (int i = 0; i < words; i++) {
+                    near[i] |= geometry.neighbours[cell * words + i];
+                }
+                anyMark = true;
+            }
+        }
+        int n = 0;
+        for (int cell : geometry.centerOrder) {
+            if (position.isEmpty(cell) && (!anyMark || GridGeometry.test(near, 0, cell))) {
+                moves[n++] = cell;
+                if (!anyMark) break;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * If the opponent could complete a line next turn, keep only the cells that stop it
+     * (any other move loses); otherwise leave the moves as they are
+     */
+    private static int forcedBlocks(GridPosition position, int opponent, int[] moves, int count) {
+        int blocks = 0;
+        for (int i = 0; i < count; i++) {
+            if (position.completesLine(opponent, moves[i])) {
+                moves[blocks++] = moves[i];
+            }
+        }
+        return blocks > 0 ? blocks : count;
+    }
+
+    /**
+     * Same line heuristic as the 3x3 evaluation: squared mark counts on lines only one side uses.
+     * Large boards have up to a few hundred lines, so the sum is clamped to +-MAX_EVALUATION.
+     */
+    static int evaluate(GridPosition position) {
+        GridGeometry geometry = position.geometry;
+        int words = geometry.words;
+        int score = 0;
+        for (int line = 0; line < geometry.lineCount; line++) {
+            int ai = 0;
+            int human = 0;
+            for (int w = 0; w < words; w++) {
+                long bits = geometry.lines[line * words + w];
+                ai += Long.bitCount(position.word(AiService.AI, w) & bits);
+                human += Long.bitCount(position.word(AiService.HUMAN, w) & bits);
+            }
+            if (ai > 0 && human == 0) {
+                score += ai * ai * 10;
+            } else if (human > 0 && ai == 0) {
+                score -= human * human * 10;
+            }
+        }
+        return Math.max(-MAX_EVALUATION, Math.min(MAX_EVALUATION, score));
+    }
+
+    /**
+     * Per-search state: the deadline, checked every DEADLINE_CHECK_INTERVAL nodes, counters
+     * for the metrics, and scratch buffers so nodes do not allocate
+     */
+    static final class Search {
+        long deadlineNanos = Long.MAX_VALUE;
+        long nodes;
+        long cutoffs;
+        boolean aborted;
+        private int[][] moves; // One candidate list per depth
+        private long[] near;
+
+        boolean expired() {
+            if (!aborted && ++nodes % DEADLINE_CHECK_INTERVAL == 0 && deadlineNanos != Long.MAX_VALUE) {
+                aborted = System.nanoTime() - deadlineNanos > 0;
+            }
+            return aborted;
+        }
+    }
+}
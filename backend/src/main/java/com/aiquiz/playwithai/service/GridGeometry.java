@@ -0,0 +1,131 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed masks for an N x N board where K in a row wins.
+ *
+ * Cells are numbered row by row and stored as multi-word bitboards: cell i is bit i % 64
+ * of word i / 64. Every line of K cells, the lines through each cell and each cell's
+ * neighbourhood are built once per (N, K) and shared by every position on that board.
+ */
+final class GridGeometry {
+
+    static final int MIN_SIZE = 3;
+    static final int MAX_SIZE = 10;
+    static final int MIN_LINE = 3;
+
+    private static final Map<Integer, GridGeometry> CACHE = new ConcurrentHashMap<>();
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}}; // row, column, both diagonals
+
+    final int size;
+    final int cells;
+    final int words;
+    final int winLength;
+    final int lineCount;
+    final long[] lines;         // Line l is words [l * words, (l + 1) * words)
+    final int[][] linesThrough; // Lines that contain each cell
+    final long[] neighbours;    // Cells one step from cell c (any direction) are words [c * words, (c + 1) * words)
+    final int[] centerOrder;    // Every cell, closest to the center first
+
+    private GridGeometry(int size, int winLength) {
+        this.size = size;
+        this.cells = size * size;
+        this.words = (cells + 63) >>> 6;
+        this.winLength = winLength;
+
+        List<int[]> found = new ArrayList<>();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                for (int[] d : DIRECTIONS) {
+                    int endRow = r + d[0] * (winLength - 1);
+                    int endCol = c + d[1] * (winLength - 1);
+                    if (endRow >= size || endCol < 0 || endCol >= size) continue;
+                    int[] line = new int[winLength];
+                    for (int i = 0; i < winLength; i++) {
+                        line[i] = (r + d[0] * i) * size + c + d[1] * i;
+                    }
+                    found.add(line);
+                }
+            }
+        }
+        this.lineCount = found.size();
+        this.lines = new long[lineCount * words];
+        int[] through = new int[cells];
+        for (int l = 0; l < lineCount; l++) {
+            for (int cell : found.get(l)) {
+                set(lines, l * words, cell);
+                through[cell]++;
+            }
+        }
+        this.linesThrough = new int[cells][];
+        for (int cell = 0; cell < cells; cell++) {
+            linesThrough[cell] = new int[through[cell]];
+            through[cell] = 0;
+        }
+        for (int l = 0; l < lineCount; l++) {
+            for (int cell : found.get(l)) {
+                linesThrough[cell][through[cell]++] = l;
+            }
+        }
+
+        this.neighbours = new long[cells * words];
+        for (int cell = 0; cell < cells; cell++) {
+            int r = cell / size;
+            int c = cell % size;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int nr = r + dr;
+                    int nc = c + dc;
+                    if ((dr != 0 || dc != 0) && nr >= 0 && nr < size && nc >= 0 && nc < size) {
+                        set(neighbours, cell * words, nr * size + nc);
+                    }
+                }
+            }
+        }
+
+        double middle = (size - 1) / 2.0;
+        this.centerOrder = IntStream.range(0, cells).boxed()
+            .sorted((a, b) -> Double.compare(distance(a, middle), distance(b, middle)))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * Geometry for an N x N board with K in a row, built on first use
+     *
+     * @throws IllegalArgumentException if the board or line length is out of range
+     */
+    static GridGeometry of(int size, int winLength) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between " + MIN_SIZE + " and " + MAX_SIZE);
+        }
+        if (winLength < MIN_LINE || winLength > size) {
+            throw new IllegalArgumentException("Line length must be between " + MIN_LINE + " and the board size");
+        }
+        return CACHE.computeIfAbsent(size * (MAX_SIZE + 1) + winLength, key -> new GridGeometry(size, winLength));
+    }
+
+    private double distance(int cell, double middle) {
+        // Chebyshev distance first, Euclidean to break ties, so rings of cells come out center-first
+        double dr = Math.abs(cell / size - middle);
+        double dc = Math.abs(cell % size - middle);
+        return Math.max(dr, dc) * cells + Math.hypot(dr, dc);
+    }
+
+    static void set(long[] bits, int offset, int cell) {
+        bits[offset + (cell >>> 6)] |= 1L << cell;
+    }
+
+    static void clear(long[] bits, int offset, int cell) {
+        bits[offset + (cell >>> 6)] &= ~(1L << cell);
+    }
+
+    static boolean test(long[] bits, int offset, int cell) {
+        return (bits[offset + (cell >>> 6)] & (1L << cell)) != 0;
+    }
+}
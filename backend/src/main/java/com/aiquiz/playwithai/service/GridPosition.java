@@ -0,0 +1,231 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Endless-game position on a GridGeometry board.
+ * Each side is a multi-word occupancy bitboard plus a ring buffer of its marks oldest-first;
+ * placing a mark beyond the vanish length removes the oldest one, unless the new mark wins.
+ * A vanish length of 0 means marks never vanish.
+ */
+final class GridPosition {
+
+    final GridGeometry geometry;
+    private final int vanishLength;
+    private final long[] masks;    // Side s is words [s * words, (s + 1) * words)
+    private final int[][] queue;   // vanishLength + 1 slots per side
+    private final int[] head = new int[2];
+    private final int[] count = new int[2];
+    private int sideToMove;
+
+    /**
+     * Build a position from the board and oldest-first move histories.
+     * As on the 3x3 board, only the newest vanishLength entries that are actually on the board are queued.
+     */
+    GridPosition(GridGeometry geometry, int vanishLength, long[] mask0, long[] mask1,
+                 List<Integer> moves0, List<Integer> moves1, int sideToMove) {
+        this.geometry = geometry;
+        this.vanishLength = vanishLength;
+        this.masks = new long[2 * geometry.words];
+        for (int w = 0; w < geometry.words; w++) {
+            masks[w] = mask0[w];
+            masks[geometry.words + w] = mask1[w] & ~mask0[w];
+        }
+        this.queue = new int[2][vanishLength + 1];
+        this.sideToMove = sideToMove;
+        if (vanishLength > 0) {
+            loadQueue(0, moves0);
+            loadQueue(1, moves1);
+        }
+    }
+
+    private GridPosition(GridPosition other) {
+        this.geometry = other.geometry;
+        this.vanishLength = other.vanishLength;
+        this.masks = other.masks.clone();
+        this.queue = new int[][] {other.queue[0].clone(), other.queue[1].clone()};
+        this.head[0] = other.head[0];
+        this.head[1] = other.head[1];
+        this.count[0] = other.count[0];
+        this.count[1] = other.count[1];
+        this.sideToMove = other.sideToMove;
+    }
+
+    /**
+     * The classic 3x3 position on the generic board, for engines that only know GridPosition
+     */
+    static GridPosition of(Position position) {
+        List<Integer> moves0 = new ArrayList<>(position.count(0));
+        List<Integer> moves1 = new ArrayList<>(position.count(1));
+        for (int i = 0; i < position.count(0); i++) moves0.add(position.queued(0, i));
+        for (int i = 0; i < position.count(1); i++) moves1.add(position.queued(1, i));
+        return new GridPosition(GridGeometry.of(3, 3), Position.MAX_MARKS,
+                                new long[] {position.mask(0)}, new long[] {position.mask(1)},
+                                moves0, moves1, position.sideToMove());
+    }
+
+    private void loadQueue(int side, List<Integer> moves) {
+        if (moves == null) return;
+        long[] queued = new long[geometry.words];
+        for (int i = moves.size() - 1; i >= 0 && count[side] < vanishLength; i--) {
+            Integer cell = moves.get(i);
+            if (cell == null || cell < 0 || cell >= geometry.cells) continue;
+            if (!has(side, cell) || GridGeometry.test(queued, 0, cell)) continue;
+            GridGeometry.set(queued, 0, cell);
+            count[side]++;
+            queue[side][vanishLength - count[side]] = cell;
+        }
+        head[side] = vanishLength - count[side];
+    }
+
+    GridPosition copy() {
+        return new GridPosition(this);
+    }
+
+    /**
+     * Everything that decides the game from here: board size, line and vanish length,
+     * both bitboards, both queues oldest-first and the side to move. Equal keys mean equal positions.
+     */
+    long[] key() {
+        int words = geometry.words;
+        long[] key = new long[2 + 2 * words + count[0] + count[1]];
+        key[0] = ((long) geometry.size << 40) | ((long) geometry.winLength << 32) | ((long) vanishLength << 8) | sideToMove;
+        key[1] = ((long) count[0] << 32) | count[1];
+        System.arraycopy(masks, 0, key, 2, 2 * words);
+        int k = 2 + 2 * words;
+        for (int side = 0; side < 2; side++) {
+            for (int i = 0; i < count[side]; i++) {
+                key[k++] = queue[side][(head[side] + i) % (vanishLength + 1)];
+            }
+        }
+        return key;
+    }
+
+    int emptyCount() {
+        int occupied = 0;
+        for (int w = 0; w < geometry.words; w++) {
+            occupied += Long.bitCount(masks[w] | masks[geometry.words + w]);
+        }
+        return geometry.cells - occupied;
+    }
+
+    /**
+     * The n-th empty cell in index order (n below emptyCount)
+     */
+    int nthEmpty(int n) {
+        int words = geometry.words;
+        for (int w = 0; w < words; w++) {
+            long free = ~(masks[w] | masks[words + w]);
+            if (w == words - 1 && (geometry.cells & 63) != 0) {
+                free &= (1L << (geometry.cells & 63)) - 1;
+            }
+            int here = Long.bitCount(free);
+            if (n < here) {
+                for (; n > 0; n--) {
+                    free &= free - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(free);
+            }
+            n -= here;
+        }
+        return Position.NONE;
+    }
+
+    int sideToMove() {
+        return sideToMove;
+    }
+
+    boolean has(int side, int cell) {
+        return GridGeometry.test(masks, side * geometry.words, cell);
+    }
+
+    boolean isEmpty(int cell) {
+        return !has(0, cell) && !has(1, cell);
+    }
+
+    long word(int side, int w) {
+        return masks[side * geometry.words + w];
+    }
+
+    /**
+     * Whether placing on the (empty) cell completes a line for the side
+     */
+    boolean completesLine(int side, int cell) {
+        int words = geometry.words;
+        int base = side * words;
+        int cellWord = cell >>> 6;
+        long cellBit = 1L << cell;
+        for (int line : geometry.linesThrough[cell]) {
+            int offset = line * words;
+            boolean complete = true;
+            for (int w = 0; w < words && complete; w++) {
+                long missing = geometry.lines[offset + w] & ~masks[base + w];
+                complete = missing == (w == cellWord ? cellBit : 0L);
+            }
+            if (complete) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Side that has a completed line, or Position.NONE
+     */
+    int winner() {
+        int words = geometry.words;
+        for (int side = 0; side < 2; side++) {
+            for (int line = 0; line < geometry.lineCount; line++) {
+                boolean complete = true;
+                for (int w = 0; w < words && complete; w++) {
+                    long bits = geometry.lines[line * words + w];
+                    complete = (masks[side * words + w] & bits) == bits;
+                }
+                if (complete) return side;
+            }
+        }
+        return Position.NONE;
+    }
+
+    /**
+     * Place a mark for the side to move and hand the turn over.
+     * Returns the vanished cell (or Position.NONE) to pass back to unmake.
+     */
+    int make(int cell) {
+        int side = sideToMove;
+        int vanished = Position.NONE;
+        if (vanishLength > 0) {
+            int capacity = vanishLength + 1;
+            boolean wins = completesLine(side, cell);
+            queue[side][(head[side] + count[side]) % capacity] = cell;
+            count[side]++;
+            if (count[side] > vanishLength && !wins) {
+                vanished = queue[side][head[side]];
+                head[side] = (head[side] + 1) % capacity;
+                count[side]--;
+                GridGeometry.clear(masks, side * geometry.words, vanished);
+            }
+        }
+        GridGeometry.set(masks, side * geometry.words, cell);
+        sideToMove = side ^ 1;
+        return vanished;
+    }
+
+    /**
+     * Undo a make(cell) that returned the given vanished cell
+     */
+    void unmake(int cell, int vanished) {
+        int side = sideToMove ^ 1;
+        GridGeometry.clear(masks, side * geometry.words, cell);
+        if (vanishLength > 0) {
+            int capacity = vanishLength + 1;
+            if (vanished != Position.NONE) {
+                head[side] = (head[side] - 1 + capacity) % capacity;
+                queue[side][head[side]] = vanished;
+                count[side]++;
+                GridGeometry.set(masks, side * geometry.words, vanished);
+            }
+            count[side]--;
+        }
+        sideToMove = side;
+    }
+}
@@ -0,0 +1,18 @@
+package com.aiquiz.playwithai.service;
+
+/**
+ * Thrown when the leaderboard write-behind queue is full and a new player cannot be queued
+ */
+public class LeaderboardBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LeaderboardBusyException(long retryAfterSeconds) {
+        super("The leaderboard is busy, please retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,53 @@
+package com.aiquiz.playwithai.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aiquiz.playwithai.dto.LeaderboardRow;
+import com.aiquiz.playwithai.repository.LeaderboardRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes the whole leaderboard as a JSON array straight from a database cursor.
+ * Rows are fetched 500 at a time and serialized as they arrive, so heap use does
+ * not depend on the size of the table.
+ */
+@Service
+public class LeaderboardExporter {
+
+    private final LeaderboardRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    @Autowired
+    public LeaderboardExporter(LeaderboardRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        // Let the generator buffer rows instead of flushing after each one
+        this.rowWriter = objectMapper.writerFor(LeaderboardRow.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // The transaction keeps the cursor open (PostgreSQL only streams with autocommit off)
+    @Transactional(readOnly = true)
+    public void writeAll(OutputStream out) throws IOException {
+        try (Stream<LeaderboardRow> rows = repository.streamAllOrdered();
+             JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartArray();
+            Iterator<LeaderboardRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.writeValue(json, iterator.next());
+            }
+            json.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.aiquiz.playwithai.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.aiquiz.playwithai.dto.RankedEntry;
+import com.aiquiz.playwithai.model.LeaderboardEntry;
+import com.aiquiz.playwithai.repository.LeaderboardRepository;
+
+/**
+ * In-memory leaderboard ordered by (timeTakenMs, id), so top-N, a player's rank and
+ * the players around a rank are answered without going to the database.
+ *
+ * The order lives in an indexable skip list: every forward link also records how many
+ * rows it jumps over, which makes rank lookups and access by rank O(log n).
+ * It is loaded in the background once the database is migrated (or by the first call that
+ * needs it) and updated by the controller after every write.
+ *
+ * topVersion() only moves when a write changes what the first TOP_TRACKED ranks show,
+ * so cached copies of the top of the board stay valid through writes further down.
+ */
+@Service
+public class LeaderboardIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardIndex.class);
+
+    private static final int MAX_LEVEL = 24; // Plenty for 2^24 players at p = 1/2
+    public static final int TOP_TRACKED = 100; // Ranks covered by topVersion()
+
+    private final LeaderboardRepository repository;
+    private final DatabaseStartup databaseStartup;
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node head = new Node(null, MAX_LEVEL);
+    private final Map<Long, Player> byId = new HashMap<>();
+    private int level = 1;
+    private int size;
+    private volatile long topVersion; // Written under the write lock
+
+    @Autowired
+    public LeaderboardIndex(LeaderboardRepository repository, DatabaseStartup databaseStartup) {
+        this.repository = repository;
+        this.databaseStartup = databaseStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        Thread thread = new Thread(() -> {
+            try {
+                awaitLoaded();
+            } catch (RuntimeException e) {
+                log.warn("Leaderboard index not loaded: {}", e.getMessage());
+            }
+        }, "leaderboard-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Block until the index holds the database contents, loading it on this thread if needed
+     */
+    public void awaitLoaded() {
+        if (loaded) return;
+        synchronized (loadLock) {
+            if (!loaded) {
+                databaseStartup.awaitMigrated();
+                load();
+                loaded = true;
+            }
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        List<LeaderboardEntry> entries = repository.findAll();
+        lock.writeLock().lock();
+        try {
+            for (LeaderboardEntry entry : entries) {
+                put(entry);
+            }
+            topVersion++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Leaderboard index loaded {} players in {} ms", entries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Insert a saved row, or move it if its time changed
+     */
+    public void update(LeaderboardEntry entry) {
+        if (entry == null || entry.getId() == null) return;
+        awaitLoaded();
+        lock.writeLock().lock();
+        try {
+            put(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes whenever the first TOP_TRACKED ranks change, and only then
+     */
+    public long topVersion() {
+        awaitLoaded();
+        return topVersion;
+    }
+
+    public int size() {
+        awaitLoaded();
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The n fastest players
+     */
+    public List<RankedEntry> top(int n) {
+        return window(1, n);
+    }
+
+    /**
+     * The n fastest players (n at most TOP_TRACKED) and the topVersion() they belong to, read together
+     */
+    public Top topWithVersion(int n) {
+        awaitLoaded();
+        lock.readLock().lock();
+        try {
+            return new Top(topVersion, window(1, Math.min(n, TOP_TRACKED)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 1-based rank of a player, or -1 if the id is unknown
+     */
+    public long rank(long id) {
+        awaitLoaded();
+        lock.readLock().lock();
+        try {
+            Player player = byId.get(id);
+            return player == null ? -1 : rankOf(player);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds a lock
+    private long rankOf(Player player) {
+        Node x = head;
+        long rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i].player, player) <= 0) {
+                rank += x.width[i];
+                x = x.next[i];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Up to count players starting at the given 1-based rank
+     */
+    public List<RankedEntry> window(long fromRank, int count) {
+        awaitLoaded();
+        lock.readLock().lock();
+        try {
+            long first = Math.max(1, fromRank);
+            List<RankedEntry> result = new ArrayList<>(Math.max(0, (int) Math.min(count, size - first + 1)));
+            Node x = nodeAt(first);
+            for (long rank = first; x != null && result.size() < count; rank++, x = x.next[0]) {
+                result.add(x.player.toRanked(rank));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The player with the given id and up to radius players either side
+     */
+    public List<RankedEntry> around(long id, int radius) {
+        long rank = rank(id);
+        if (rank < 0) return List.of();
+        return window(rank - radius, 2 * radius + 1 - (int) Math.max(0, radius + 1 - rank));
+    }
+
+    // Caller holds the write lock
+    private void put(LeaderboardEntry entry) {
+        Player player = new Player(entry);
+        Player old = byId.get(player.id);
+        long oldRank = Long.MAX_VALUE;
+        if (old != null) {
+            if (old.sameAs(player)) return;
+            oldRank = rankOf(old);
+            remove(old);
+        }
+        byId.put(player.id, player);
+        insert(player);
+        // Rows shift only between the old and the new rank, so the top is untouched if both are below it
+        if (Math.min(oldRank, rankOf(player)) <= TOP_TRACKED) {
+            topVersion++;
+        }
+    }
+
+    private Node nodeAt(long rank) {
+        if (rank > size) return null;
+        Node x = head;
+        long traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.width[i] <= rank) {
+                traversed += x.width[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) return x;
+        }
+        return null;
+    }
+
+    private void insert(Player player) {
+        Node[] update = new Node[MAX_LEVEL];
+        long[] rankAt = new long[MAX_LEVEL];
+        Node x = head;
+        long rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i].player, player) < 0) {
+                rank += x.width[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+            rankAt[i] = rank;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                update[i] = head;
+                rankAt[i] = 0;
+                head.next[i] = null;
+                head.width[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        // Widths of links past the end count the rows left after their node
+        Node node = new Node(player, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.width[i] = update[i].width[i] - (rank - rankAt[i]);
+            update[i].width[i] = rank - rankAt[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].width[i]++;
+        }
+        size++;
+    }
+
+    private void remove(Player player) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i].player, player) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node target = x.next[0];
+        if (target == null || target.player.id != player.id) return;
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].width[i] += target.width[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].width[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        byId.remove(player.id);
+        size--;
+    }
+
+    private static int randomLevel() {
+        // Each extra level with probability 1/2
+        int bits = ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1));
+        return Integer.numberOfTrailingZeros(bits) + 1;
+    }
+
+    private static int compare(Player a, Player b) {
+        int byTime = Long.compare(a.timeTakenMs, b.timeTakenMs);
+        return byTime != 0 ? byTime : Long.compare(a.id, b.id);
+    }
+
+    /**
+     * Snapshot of the public columns of a row, so later changes to the entity cannot reorder the list
+     */
+    private static final class Player {
+        final long id;
+        final String name;
+        final long timeTakenMs;
+        final LocalDateTime datePlayed;
+
+        Player(LeaderboardEntry entry) {
+            this.id = entry.getId();
+            this.name = entry.getName();
+            this.timeTakenMs = entry.getTimeTakenMs();
+            this.datePlayed = entry.getDatePlayed();
+        }
+
+        RankedEntry toRanked(long rank) {
+            return new RankedEntry(rank, id, name, timeTakenMs, datePlayed);
+        }
+
+        // Every field /top shows; a resubmission stamps a new datePlayed, so it still counts as a change
+        boolean sameAs(Player other) {
+            return id == other.id && timeTakenMs == other.timeTakenMs
+                && Objects.equals(name, other.name) && Objects.equals(datePlayed, other.datePlayed);
+        }
+    }
+
+    /**
+     * The fastest players together with the top version they were read at
+     */
+    public record Top(long version, List<RankedEntry> entries) {
+    }
+
+    private static final class Node {
+        final Player player; // null for the head
+        final Node[] next;
+        final long[] width; // Rows jumped over by next[i], including the one it lands on
+
+        Node(Player player, int level) {
+            this.player = player;
+            this.next = new Node[level];
+            this.width = new long[level];
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.aiquiz.playwithai.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pre-serialized JSON for /api/leaderboard/top, one body per requested limit, kept until
+ * the index reports a new top version. Between changes to the top of the board a request
+ * costs a map lookup, and a client that already has the body gets 304 from its ETag.
+ *
+ * Top versions are counted per process, so they restart after a deploy and differ between
+ * instances. The ETag is therefore a hash of the body itself, and the version clients see
+ * is prefixed with an id picked at startup.
+ */
+@Service
+public class LeaderboardSnapshot {
+
+    private final LeaderboardIndex index;
+    private final ObjectMapper objectMapper;
+    private final String bootId = Long.toUnsignedString(new SecureRandom().nextLong(), 36);
+    private volatile Bodies current = new Bodies(-1);
+
+    @Autowired
+    public LeaderboardSnapshot(LeaderboardIndex index, ObjectMapper objectMapper) {
+        this.index = index;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Version of the top of the board; changes only when one of the first TOP_TRACKED ranks does,
+     * and on every restart
+     */
+    public String version() {
+        return version(index.topVersion());
+    }
+
+    private String version(long topVersion) {
+        return bootId + "-" + topVersion;
+    }
+
+    /**
+     * The n fastest players as a JSON array, with the version it was read at
+     */
+    public Body top(int n) {
+        Bodies bodies = current;
+        Body body = bodies.byLimit.get(n);
+        if (body != null && bodies.version == index.topVersion()) {
+            return body;
+        }
+        LeaderboardIndex.Top top = index.topWithVersion(n);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(top.entries());
+            body = new Body(top.version(), version(top.version()), json, eTag(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Leaderboard snapshot could not be serialized", e);
+        }
+        if (top.version() > bodies.version) {
+            // Bodies of older versions are dropped together; a late writer can only lose its entry
+            bodies = new Bodies(top.version());
+            current = bodies;
+        }
+        if (bodies.version == body.topVersion) {
+            bodies.byLimit.put(n, body);
+        }
+        return body;
+    }
+
+    /**
+     * Strong validator for a snapshot body: a hash of its bytes, valid across restarts and instances
+     */
+    static String eTag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"top-" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param topVersion the index's top version the body was read at
+     * @param version    the same version as clients see it, with the boot id
+     */
+    public record Body(long topVersion, String version, byte[] json, String eTag) {
+    }
+
+    private static final class Bodies {
+        final long version;
+        final Map<Integer, Body> byLimit = new ConcurrentHashMap<>();
+
+        Bodies(long version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.aiquiz.playwithai.service;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.aiquiz.playwithai.dto.LeaderboardResponse;
+import com.aiquiz.playwithai.model.LeaderboardEntry;
+import com.aiquiz.playwithai.repository.LeaderboardRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional write-behind mode for leaderboard submissions (leaderboard.write-behind.enabled).
+ *
+ * Each submission is answered right away from an in-memory view of every player's best
+ * time and queued, coalesced per (phone number, email) so only the best time and the
+ * latest name are kept. A background thread writes the queue as one JDBC batch of upserts
+ * when it reaches batch-size rows or every flush-interval-ms. When the queue holds
+ * queue-capacity players a new player is turned away with LeaderboardBusyException (429),
+ * so a slow or unavailable database never runs batches on request threads.
+ * Whatever is still queued is written on shutdown.
+ */
+@Service
+public class LeaderboardWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardWriteBehind.class);
+
+    // Same statement as LeaderboardRepository.upsert, without RETURNING so it can be batched
+    private static final String UPSERT_SQL =
+        "INSERT INTO leaderboard AS l (name, phone_number, email, time_taken_seconds, date_played) "
+      + "VALUES (?, ?, ?, ?, ?) "
+      + "ON CONFLICT (phone_number, email) DO UPDATE SET "
+      + "  name = EXCLUDED.name, "
+      + "  date_played = EXCLUDED.date_played, "
+      + "  time_taken_seconds = LEAST(l.time_taken_seconds, EXCLUDED.time_taken_seconds)";
+
+    // Exactly the (phone number, email) pairs of a batch; IS NOT DISTINCT FROM lets a missing
+    // value match a missing one, as the NULLS NOT DISTINCT unique index does
+    private static final String WRITTEN_SQL =
+        "SELECT l.id, l.phone_number, l.email, l.time_taken_seconds "
+      + "FROM unnest(?::varchar[], ?::varchar[]) AS k(phone_number, email) "
+      + "JOIN leaderboard l ON l.phone_number IS NOT DISTINCT FROM k.phone_number "
+      + "                  AND l.email IS NOT DISTINCT FROM k.email";
+
+    private final LeaderboardRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaderboardIndex index;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final long flushIntervalMs;
+    private final long retryAfterSeconds;
+
+    private final Object lock = new Object();
+    private final Map<String, Best> view = new HashMap<>();               // Best known time per player
+    private LinkedHashMap<String, LeaderboardEntry> pending = new LinkedHashMap<>(); // Coalesced, not yet written
+    private boolean flushRequested; // A flush is waiting on the flusher thread; guarded by lock
+    private final Object flushLock = new Object();
+    private final Object viewLoadLock = new Object();
+    private volatile boolean viewLoaded;
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public LeaderboardWriteBehind(LeaderboardRepository repository, JdbcTemplate jdbcTemplate, LeaderboardIndex index,
+                                  @Value("${leaderboard.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${leaderboard.write-behind.batch-size:200}") int batchSize,
+                                  @Value("${leaderboard.write-behind.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${leaderboard.write-behind.flush-interval-ms:500}") long flushIntervalMs) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.index = index;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(this.batchSize, queueCapacity);
+        this.flushIntervalMs = flushIntervalMs;
+        this.retryAfterSeconds = Math.max(1, (flushIntervalMs + 999) / 1000);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leaderboard-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Leaderboard write-behind enabled: batch {} rows or {} ms, queue {} players",
+                 batchSize, flushIntervalMs, queueCapacity);
+    }
+
+    /**
+     * Queue a submission and answer it from the in-memory view. A player's first submission gets
+     * an entry with a null id, since the row has no id until its batch is written; later ones
+     * carry the id once the flush that wrote it has read it back. A returning player is always
+     * queued, since they only replace their own entry; a new one is rejected while the queue is full.
+     */
+    public LeaderboardResponse submit(LeaderboardEntry entry) {
+        loadView();
+        String key = key(entry);
+        LeaderboardEntry submitted = new LeaderboardEntry(entry.getName(), entry.getPhoneNumber(), entry.getEmail(),
+                                                          entry.getTimeTakenMs());
+        submitted.setDatePlayed(LocalDateTime.now());
+
+        synchronized (lock) {
+            if (pending.size() >= queueCapacity && !pending.containsKey(key)) {
+                requestFlush();
+                throw new LeaderboardBusyException(retryAfterSeconds);
+            }
+            return enqueue(key, submitted);
+        }
+    }
+
+    // Read every player's best time once, on the first submission rather than at startup
+    private void loadView() {
+        if (viewLoaded) return;
+        synchronized (viewLoadLock) {
+            if (viewLoaded) return;
+            index.awaitLoaded(); // Also waits for the schema migration
+            List<LeaderboardEntry> entries = repository.findAll();
+            synchronized (lock) {
+                for (LeaderboardEntry entry : entries) {
+                    view.merge(key(entry), new Best(entry.getId(), entry.getTimeTakenMs()), Best::min);
+                }
+            }
+            viewLoaded = true;
+        }
+    }
+
+    // Caller holds lock
+    private LeaderboardResponse enqueue(String key, LeaderboardEntry submitted) {
+        pending.merge(key, submitted, LeaderboardWriteBehind::coalesce);
+        if (pending.size() >= batchSize) {
+            requestFlush();
+        }
+
+        Best previous = view.get(key);
+        boolean timeUpdated = previous == null || submitted.getTimeTakenMs() < previous.timeTakenMs;
+        Best best = previous == null ? new Best(null, submitted.getTimeTakenMs()) : previous.min(new Best(null, submitted.getTimeTakenMs()));
+        view.put(key, best);
+
+        LeaderboardEntry response = new LeaderboardEntry(submitted.getName(), submitted.getPhoneNumber(),
+                                                         submitted.getEmail(), best.timeTakenMs);
+        response.setId(best.id); // Unknown until a new player's first batch is written
+        response.setDatePlayed(submitted.getDatePlayed());
+        return previous == null ? LeaderboardResponse.added(response) : LeaderboardResponse.returning(response, timeUpdated);
+    }
+
+    // Caller holds lock; hands a flush to the flusher thread unless one is already waiting there
+    private void requestFlush() {
+        if (flushRequested || flusher == null || flusher.isShutdown()) return;
+        flushRequested = true;
+        flusher.execute(this::flushQuietly);
+    }
+
+    /**
+     * Write everything queued so far as one JDBC batch and refresh the ranked index
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<LeaderboardEntry> batch;
+            synchronized (lock) {
+                flushRequested = false;
+                if (pending.isEmpty()) return;
+                batch = new ArrayList<>(pending.values());
+                pending = new LinkedHashMap<>();
+            }
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batchSize, (ps, entry) -> {
+                    ps.setString(1, entry.getName());
+                    ps.setString(2, entry.getPhoneNumber());
+                    ps.setString(3, entry.getEmail());
+                    ps.setLong(4, entry.getTimeTakenMs());
+                    ps.setTimestamp(5, Timestamp.valueOf(entry.getDatePlayed()));
+                });
+            } catch (RuntimeException e) {
+                requeue(batch);
+                throw e;
+            }
+            refreshIndex(batch);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Leaderboard flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    // Put a failed batch back, merged with anything submitted since
+    private void requeue(List<LeaderboardEntry> batch) {
+        synchronized (lock) {
+            LinkedHashMap<String, LeaderboardEntry> merged = new LinkedHashMap<>();
+            for (LeaderboardEntry entry : batch) {
+                merged.put(key(entry), entry);
+            }
+            pending.forEach((key, entry) -> merged.merge(key, entry, LeaderboardWriteBehind::coalesce));
+            pending = merged;
+        }
+    }
+
+    // One query for the ids and stored times of the rows just written
+    private void refreshIndex(List<LeaderboardEntry> batch) {
+        Map<String, LeaderboardEntry> written = new HashMap<>();
+        for (LeaderboardEntry entry : batch) {
+            written.put(key(entry), entry);
+        }
+        List<LeaderboardEntry> stored = new ArrayList<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(WRITTEN_SQL);
+            Array phones = connection.createArrayOf("varchar", batch.stream().map(LeaderboardEntry::getPhoneNumber).toArray());
+            Array emails = connection.createArrayOf("varchar", batch.stream().map(LeaderboardEntry::getEmail).toArray());
+            statement.setArray(1, phones);
+            statement.setArray(2, emails);
+            return statement;
+        }, rs -> {
+            String key = key(rs.getString("phone_number"), rs.getString("email"));
+            LeaderboardEntry entry = written.get(key);
+            LeaderboardEntry row = new LeaderboardEntry(entry.getName(), entry.getPhoneNumber(), entry.getEmail(),
+                                                        rs.getLong("time_taken_seconds"));
+            row.setId(rs.getLong("id"));
+            row.setDatePlayed(entry.getDatePlayed());
+            stored.add(row);
+        });
+
+        synchronized (lock) {
+            for (LeaderboardEntry row : stored) {
+                view.merge(key(row), new Best(row.getId(), row.getTimeTakenMs()), Best::min);
+            }
+        }
+        for (LeaderboardEntry row : stored) {
+            index.update(row);
+        }
+    }
+
+    @PreDestroy
+    void drain() {
+        if (flusher == null) return;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Leaderboard write-behind drained");
+    }
+
+    // The later submission's name and date with the better of the two times
+    private static LeaderboardEntry coalesce(LeaderboardEntry earlier, LeaderboardEntry later) {
+        LeaderboardEntry merged = new LeaderboardEntry(later.getName(), later.getPhoneNumber(), later.getEmail(),
+                                                       Math.min(earlier.getTimeTakenMs(), later.getTimeTakenMs()));
+        merged.setDatePlayed(later.getDatePlayed());
+        return merged;
+    }
+
+    private static String key(LeaderboardEntry entry) {
+        return key(entry.getPhoneNumber(), entry.getEmail());
+    }
+
+    // Missing values get their own marker, so a null phone number never matches the text "null"
+    private static String key(String phoneNumber, String email) {
+        return part(phoneNumber) + '\u0000' + part(email);
+    }
+
+    private static String part(String value) {
+        return value == null ? "\u0001" : "+" + value;
+    }
+
+    /**
+     * A player's best time and row id (null until the row exists)
+     */
+    private static final class Best {
+        final Long id;
+        final long timeTakenMs;
+
+        Best(Long id, long timeTakenMs) {
+            this.id = id;
+            this.timeTakenMs = timeTakenMs;
+        }
+
+        Best min(Best other) {
+            long time = Math.min(timeTakenMs, other.timeTakenMs);
+            return new Best(id != null ? id : other.id, time);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Monte Carlo Tree Search, used instead of minimax for the difficulties listed in ai.mcts.difficulties.
+ *
+ * Each iteration walks the tree by UCT, adds one node and finishes the game with a random
+ * playout that follows the vanishing rule; the move played is the most visited. With
+ * ai.mcts.threads above 1 every thread grows its own tree from the same root and their
+ * visit counts are added up at the end (root parallelism, so nothing is shared while searching).
+ *
+ * After a move, the subtrees under each of the opponent's replies are kept in a small LRU
+ * keyed by the exact position, so the next turn of the same game starts from the statistics
+ * already gathered, whether it arrives through a server session or a plain /aiMove request.
+ * The LRU is bounded by entries (ai.mcts.reuse-trees) and by the nodes they hold
+ * (ai.mcts.reuse-max-nodes). Trees for the original 3x3 board are never kept: they are tiny,
+ * and AiService searches the canonical image there, which the next request rarely matches.
+ */
+@Component
+public class MctsEngine {
+
+    private static final int MAX_TREE_NODES = 200_000; // Added per tree per move; past this, iterations only play out
+    private static final int PLAYOUT_PLIES_PER_CELL = 4;  // Endless games may never end: call it a draw
+    private static final int DEADLINE_CHECK_INTERVAL = 64; // Playouts between clock reads
+
+    private final Set<String> difficulties = new HashSet<>();
+    private final long budgetMs;
+    private final long playoutBudget;
+    private final double exploration;
+    private final int threads;
+    private final ForkJoinPool pool; // null when every tree grows on the calling thread
+    private final int reuseTrees;
+    private final long reuseMaxNodes;
+    private final LinkedHashMap<Key, Kept> reuse = new LinkedHashMap<>(16, 0.75f, true);
+    private long keptNodes; // Guarded by reuse
+    private SplittableRandom seeds = new SplittableRandom(); // Guarded by reuse
+
+    @Autowired
+    public MctsEngine(@Value("${ai.mcts.difficulties:}") String difficulties,
+                      @Value("${ai.mcts.budget-ms:0}") long budgetMs,
+                      @Value("${ai.mcts.playouts:0}") long playoutBudget,
+                      @Value("${ai.mcts.exploration:1.41}") double exploration,
+                      @Value("${ai.mcts.threads:1}") int threads,
+                      @Value("${ai.mcts.reuse-trees:64}") int reuseTrees,
+                      @Value("${ai.mcts.reuse-max-nodes:250000}") long reuseMaxNodes) {
+        for (String difficulty : difficulties.split(",")) {
+            if (!difficulty.isBlank()) {
+                this.difficulties.add(difficulty.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        this.budgetMs = budgetMs;
+        this.playoutBudget = playoutBudget;
+        this.exploration = exploration;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = this.threads > 1
+            ? new ForkJoinPool(this.threads - 1, pool -> {
+                  ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                  thread.setName("ai-mcts-" + thread.getPoolIndex());
+                  return thread;
+              }, null, false)
+            : null;
+        this.reuseTrees = reuseTrees;
+        this.reuseMaxNodes = reuseMaxNodes;
+    }
+
+    /**
+     * An engine that no difficulty uses
+     */
+    public static MctsEngine disabled() {
+        return new MctsEngine("", 0, 0, 1.41, 1, 0, 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Drop every kept tree and reseed the playouts, so the moves that follow are reproducible
+     */
+    void restart(long seed) {
+        synchronized (reuse) {
+            reuse.clear();
+            keptNodes = 0;
+            seeds = new SplittableRandom(seed);
+        }
+    }
+
+    /**
+     * Nodes currently kept for reuse
+     */
+    long keptNodes() {
+        synchronized (reuse) {
+            return keptNodes;
+        }
+    }
+
+    boolean handles(String difficulty) {
+        return difficulties.contains(difficulty);
+    }
+
+    /**
+     * Time budget per move in ms, or the given minimax budget when none is configured
+     */
+    long budgetMs(long minimaxBudgetMs) {
+        return budgetMs > 0 ? budgetMs : minimaxBudgetMs;
+    }
+
+    /**
+     * Most visited move for the side to move, searching until the deadline or, when
+     * ai.mcts.playouts is set, until that many playouts have run (whichever comes first)
+     */
+    int chooseMove(GridPosition position, long deadlineNanos, Search search) {
+        boolean reusable = reuseTrees > 0 && position.geometry.cells > Position.BOARD_SIZE;
+        Key rootKey = reusable ? new Key(position.key()) : null;
+        Node[] roots = null;
+        long seed;
+        synchronized (reuse) {
+            // Taken out so two requests for the same position never grow the same tree
+            Kept kept = reusable ? reuse.remove(rootKey) : null;
+            if (kept != null) {
+                roots = kept.roots;
+                keptNodes -= kept.nodes;
+            }
+            seed = seeds.nextLong();
+        }
+        if (roots == null || roots.length != threads) {
+            roots = new Node[threads];
+        }
+        for (int t = 0; t < threads; t++) {
+            if (roots[t] == null) {
+                roots[t] = new Node(Position.NONE, position.sideToMove() ^ 1, false, null);
+            }
+            roots[t].parent = null;
+        }
+
+        long perTree = playoutBudget > 0 ? Math.max(1, playoutBudget / threads) : Long.MAX_VALUE;
+        Tree[] trees = new Tree[threads];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(threads - 1);
+        for (int t = 0; t < threads; t++) {
+            trees[t] = new Tree(roots[t], position, new SplittableRandom(seed + 31L * t));
+            if (t > 0) {
+                Tree tree = trees[t];
+                tasks.add(pool.submit(() -> grow(tree, perTree, deadlineNanos)));
+            }
+        }
+        grow(trees[0], perTree, deadlineNanos);
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        // Most visits over all trees; ties go to the cell closest to the center
+        int cells = position.geometry.cells;
+        long[] visits = new long[cells];
+        for (Tree tree : trees) {
+            search.playouts += tree.playouts;
+            for (Node child : tree.root.children) {
+                visits[child.move] += child.visits;
+            }
+        }
+        int bestMove = Position.NONE;
+        for (int cell : position.geometry.centerOrder) {
+            if (position.isEmpty(cell) && (bestMove == Position.NONE || visits[cell] > visits[bestMove])) {
+                bestMove = cell;
+            }
+        }
+        if (reusable && bestMove != Position.NONE) {
+            keepSubtrees(position, trees, bestMove);
+        }
+        return bestMove;
+    }
+
+    private void grow(Tree tree, long playouts, long deadlineNanos) {
+        for (long i = 0; i < playouts; i++) {
+            if (i > 0 && i % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadlineNanos > 0) {
+                break;
+            }
+            iterate(tree);
+        }
+    }
+
+    /**
+     * One selection, expansion, playout and backup
+     */
+    private void iterate(Tree tree) {
+        GridPosition position = tree.rootPosition.copy();
+        Node node = tree.root;
+        while (!node.terminal) {
+            if (node.untried == null) {
+                node.untried = new int[position.geometry.cells];
+                node.untriedCount = GridEngine.candidates(position, node.untried, tree.near);
+            }
+            if (node.untriedCount > 0 && tree.size < MAX_TREE_NODES) {
+                // Expansion: one random untried move becomes a child
+                int pick = tree.random.nextInt(node.untriedCount);
+                int move = node.untried[pick];
+                node.untried[pick] = node.untried[--node.untriedCount];
+                int side = position.sideToMove();
+                boolean wins = position.completesLine(side, move);
+                Node child = new Node(move, side, wins, node);
+                node.children.add(child);
+                tree.size++;
+                if (!wins) {
+                    position.make(move);
+                }
+                node = child;
+                break;
+            }
+            if (node.children.isEmpty()) {
+                break;
+            }
+            node = select(node);
+            if (!node.terminal) {
+                position.make(node.move);
+            }
+        }
+
+        int winner = node.terminal ? node.mover : playout(position, tree.random);
+        tree.playouts++;
+        for (Node n = node; n != null; n = n.parent) {
+            n.visits++;
+            n.wins += winner == Position.NONE ? 0.5 : winner == n.mover ? 1.0 : 0.0;
+        }
+    }
+
+    /**
+     * UCT: the child with the best win rate plus exploration bonus, from the point of view
+     * of the side choosing between them
+     */
+    private Node select(Node node) {
+        double logVisits = Math.log(node.visits);
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : node.children) {
+            double value = child.visits == 0
+                ? Double.POSITIVE_INFINITY
+                : child.wins / child.visits + exploration * Math.sqrt(logVisits / child.visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Random moves, vanishing included, until a line is completed; the winning side,
+     * or Position.NONE for a full board or an overlong game
+     */
+    private static int playout(GridPosition position, SplittableRandom random) {
+        int limit = PLAYOUT_PLIES_PER_CELL * position.geometry.cells;
+        for (int ply = 0; ply < limit; ply++) {
+            int empty = position.emptyCount();
+            if (empty == 0) {
+                return Position.NONE;
+            }
+            int side = position.sideToMove();
+            int move = position.nthEmpty(random.nextInt(empty));
+            if (position.completesLine(side, move)) {
+                return side;
+            }
+            position.make(move);
+        }
+        return Position.NONE;
+    }
+
+    /**
+     * Remember the subtrees below the move just played, one per opponent reply, for the next turn
+     */
+    private void keepSubtrees(GridPosition position, Tree[] trees, int move) {
+        GridPosition afterMove = position.copy();
+        afterMove.make(move);
+        Map<Key, Kept> next = new LinkedHashMap<>();
+        for (int t = 0; t < trees.length; t++) {
+            Node played = trees[t].root.child(move);
+            if (played == null || played.terminal) continue;
+            for (Node reply : played.children) {
+                if (reply.terminal) continue;
+                // Cut loose, so a kept subtree does not hold on to the rest of this tree
+                reply.parent = null;
+                GridPosition afterReply = afterMove.copy();
+                afterReply.make(reply.move);
+                Kept kept = next.computeIfAbsent(new Key(afterReply.key()), key -> new Kept(new Node[trees.length]));
+                kept.roots[t] = reply;
+                kept.nodes += count(reply);
+            }
+        }
+        synchronized (reuse) {
+            for (Map.Entry<Key, Kept> entry : next.entrySet()) {
+                Kept kept = entry.getValue();
+                if (kept.nodes > reuseMaxNodes) continue;
+                Kept replaced = reuse.put(entry.getKey(), kept);
+                keptNodes += kept.nodes - (replaced != null ? replaced.nodes : 0);
+            }
+            // Least recently used first
+            Iterator<Kept> eldest = reuse.values().iterator();
+            while (eldest.hasNext() && (reuse.size() > reuseTrees || keptNodes > reuseMaxNodes)) {
+                keptNodes -= eldest.next().nodes;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Nodes in a subtree, its root included
+     */
+    private static long count(Node root) {
+        long nodes = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            nodes++;
+            node.children.forEach(stack::push);
+        }
+        return nodes;
+    }
+
+    /**
+     * Per-move counters handed to the metrics
+     */
+    static final class Search {
+        long playouts;
+    }
+
+    private static final class Tree {
+        final Node root;
+        final GridPosition rootPosition;
+        final SplittableRandom random;
+        final long[] near;
+        int size;
+        long playouts;
+
+        Tree(Node root, GridPosition rootPosition, SplittableRandom random) {
+            this.root = root;
+            this.rootPosition = rootPosition;
+            this.random = random;
+            this.near = new long[rootPosition.geometry.words];
+        }
+    }
+
+    private static final class Node {
+        final int move;
+        final int mover;        // Side that played move to reach this node
+        final boolean terminal; // move completed a line for mover
+        final List<Node> children = new ArrayList<>(4);
+        Node parent;
+        int[] untried;          // Filled the first time the node is walked through
+        int untriedCount;
+        int visits;
+        double wins;            // From mover's point of view, draws count half
+
+        Node(int move, int mover, boolean terminal, Node parent) {
+            this.move = move;
+            this.mover = mover;
+            this.terminal = terminal;
+            this.parent = parent;
+        }
+
+        Node child(int move) {
+            for (Node child : children) {
+                if (child.move == move) return child;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One reused subtree per thread for a position, and their total node count
+     */
+    private static final class Kept {
+        final Node[] roots;
+        long nodes;
+
+        Kept(Node[] roots) {
+            this.roots = roots;
+        }
+    }
+
+    private static final class Key {
+        private final long[] state;
+        private final int hash;
+
+        Key(long[] state) {
+            this.state = state;
+            this.hash = Arrays.hashCode(state);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(state, key.state);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
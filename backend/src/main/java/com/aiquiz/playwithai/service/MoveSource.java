@@ -0,0 +1,15 @@
+package com.aiquiz.playwithai.service;
+
+/**
+ * Which part of AiService produced a move, for metrics
+ */
+enum MoveSource {
+    TABLEBASE,
+    IMMEDIATE_WIN, // Includes moves that set up a double threat
+    BLOCK,
+    MINIMAX,
+    MCTS,
+    RANDOM;
+
+    final String tag = name().toLowerCase();
+}
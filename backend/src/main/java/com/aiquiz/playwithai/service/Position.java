@@ -0,0 +1,267 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Packed endless-game position.
+ * Each side is a 9-bit occupancy mask (bit i = cell i) plus a ring buffer
+ * holding that side's marks oldest-first, so moves can be made and unmade
+ * in place without allocating.
+ */
+final class Position {
+
+    static final int BOARD_SIZE = 9;
+    static final int MAX_MARKS = 3;          // A 4th mark makes the oldest one vanish
+    static final int FULL_MASK = (1 << BOARD_SIZE) - 1;
+    static final int NONE = -1;
+
+    private static final int QUEUE_CAPACITY = 4; // MAX_MARKS + the mark being placed
+
+    static final int[] LINE_MASKS = {
+        0b000_000_111, 0b000_111_000, 0b111_000_000, // rows
+        0b001_001_001, 0b010_010_010, 0b100_100_100, // columns
+        0b100_010_001, 0b001_010_100                 // diagonals
+    };
+
+    // Indexed by a 9-bit mask: whether it holds a line, and which cells would complete one
+    private static final boolean[] WIN = new boolean[FULL_MASK + 1];
+    private static final int[] COMPLETING = new int[FULL_MASK + 1];
+
+    // Zobrist keys: marks on the board, each mark's age within its side's queue, and the side to move
+    private static final long[][] ZOBRIST_CELL = new long[2][BOARD_SIZE];
+    private static final long[][] ZOBRIST_QUEUE = new long[2][MAX_MARKS * BOARD_SIZE];
+    private static final long ZOBRIST_SIDE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_7AC7L); // Fixed so hashes are stable across restarts
+        for (int side = 0; side < 2; side++) {
+            for (int i = 0; i < BOARD_SIZE; i++) {
+                ZOBRIST_CELL[side][i] = random.nextLong();
+            }
+            for (int i = 0; i < MAX_MARKS * BOARD_SIZE; i++) {
+                ZOBRIST_QUEUE[side][i] = random.nextLong();
+            }
+        }
+        ZOBRIST_SIDE = random.nextLong();
+
+        for (int mask = 0; mask <= FULL_MASK; mask++) {
+            for (int line : LINE_MASKS) {
+                int missing = line & ~mask;
+                if (missing == 0) {
+                    WIN[mask] = true;
+                } else if ((missing & (missing - 1)) == 0) {
+                    COMPLETING[mask] |= missing;
+                }
+            }
+        }
+    }
+
+    private final int[] masks = new int[2];
+    private final int[] queue = new int[2 * QUEUE_CAPACITY];
+    private final int[] head = new int[2];
+    private final int[] count = new int[2];
+    private int sideToMove;
+
+    /**
+     * Build a position from occupancy masks and oldest-first move histories.
+     * Only the newest MAX_MARKS entries of a history that are actually on the board are kept.
+     */
+    Position(int mask0, int mask1, List<Integer> moves0, List<Integer> moves1, int sideToMove) {
+        this.masks[0] = mask0 & FULL_MASK;
+        this.masks[1] = mask1 & FULL_MASK & ~mask0;
+        this.sideToMove = sideToMove;
+        loadQueue(0, moves0);
+        loadQueue(1, moves1);
+    }
+
+    private Position(Position other) {
+        System.arraycopy(other.masks, 0, masks, 0, 2);
+        System.arraycopy(other.queue, 0, queue, 0, queue.length);
+        System.arraycopy(other.head, 0, head, 0, 2);
+        System.arraycopy(other.count, 0, count, 0, 2);
+        this.sideToMove = other.sideToMove;
+    }
+
+    private void loadQueue(int side, List<Integer> moves) {
+        if (moves == null) return;
+        int queued = 0;
+        for (int i = moves.size() - 1; i >= 0 && count[side] < MAX_MARKS; i--) {
+            Integer cell = moves.get(i);
+            if (cell == null || cell < 0 || cell >= BOARD_SIZE) continue;
+            int bit = 1 << cell;
+            if ((masks[side] & bit) == 0 || (queued & bit) != 0) continue;
+            queued |= bit;
+            count[side]++;
+            // Filling backwards from the newest keeps the buffer oldest-first
+            queue[side * QUEUE_CAPACITY + (MAX_MARKS - count[side])] = cell;
+        }
+        head[side] = MAX_MARKS - count[side];
+    }
+
+    Position copy() {
+        return new Position(this);
+    }
+
+    int mask(int side) {
+        return masks[side];
+    }
+
+    int occupied() {
+        return masks[0] | masks[1];
+    }
+
+    int empty() {
+        return ~(masks[0] | masks[1]) & FULL_MASK;
+    }
+
+    int sideToMove() {
+        return sideToMove;
+    }
+
+    int count(int side) {
+        return count[side];
+    }
+
+    /**
+     * The i-th oldest mark of a side (0 = next to vanish)
+     */
+    int queued(int side, int i) {
+        return queue[side * QUEUE_CAPACITY + ((head[side] + i) & (QUEUE_CAPACITY - 1))];
+    }
+
+    /**
+     * The mark that vanishes when this side places its next non-winning mark, or NONE
+     */
+    int nextToVanish(int side) {
+        return count[side] >= MAX_MARKS ? queued(side, 0) : NONE;
+    }
+
+    /**
+     * Mask a side would end up with after placing on the given cell, vanishing included
+     */
+    int maskAfter(int side, int cell) {
+        int placed = masks[side] | (1 << cell);
+        if (isWin(placed)) return placed;
+        int vanished = nextToVanish(side);
+        return vanished == NONE ? placed : placed & ~(1 << vanished);
+    }
+
+    /**
+     * Place a mark for the side to move and hand the turn over.
+     * As in the original rules the win is checked before the oldest mark vanishes.
+     * Returns the vanished cell (or NONE) to pass back to unmake.
+     */
+    int make(int cell) {
+        int side = sideToMove;
+        int base = side * QUEUE_CAPACITY;
+        masks[side] |= 1 << cell;
+        queue[base + ((head[side] + count[side]) & (QUEUE_CAPACITY - 1))] = cell;
+        count[side]++;
+
+        int vanished = NONE;
+        if (count[side] > MAX_MARKS && !isWin(masks[side])) {
+            vanished = queue[base + head[side]];
+            head[side] = (head[side] + 1) & (QUEUE_CAPACITY - 1);
+            count[side]--;
+            masks[side] &= ~(1 << vanished);
+        }
+        sideToMove = side ^ 1;
+        return vanished;
+    }
+
+    /**
+     * Undo a make(cell) that returned the given vanished cell
+     */
+    void unmake(int cell, int vanished) {
+        int side = sideToMove ^ 1;
+        int base = side * QUEUE_CAPACITY;
+        if (vanished != NONE) {
+            head[side] = (head[side] - 1) & (QUEUE_CAPACITY - 1);
+            queue[base + head[side]] = vanished;
+            count[side]++;
+            masks[side] |= 1 << vanished;
+        }
+        count[side]--;
+        masks[side] &= ~(1 << cell);
+        sideToMove = side;
+    }
+
+    /**
+     * Zobrist hash over the board, the order of both move queues and the side to move.
+     * At most 12 table reads, so it is recomputed per node rather than kept incrementally.
+     */
+    long hash() {
+        return hash(Symmetry.IDENTITY);
+    }
+
+    /**
+     * Zobrist hash of this position as it would look under the given board symmetry
+     */
+    long hash(int symmetry) {
+        int[] cells = Symmetry.CELL[symmetry];
+        long hash = sideToMove == 0 ? 0L : ZOBRIST_SIDE;
+        for (int side = 0; side < 2; side++) {
+            for (int m = masks[side]; m != 0; m &= m - 1) {
+                hash ^= ZOBRIST_CELL[side][cells[Integer.numberOfTrailingZeros(m)]];
+            }
+            // Keyed by age counted from the newest mark, so [a, b] and [c, a, b] differ only by c
+            for (int i = Math.max(0, count[side] - MAX_MARKS); i < count[side]; i++) {
+                int age = count[side] - 1 - i;
+                hash ^= ZOBRIST_QUEUE[side][age * BOARD_SIZE + cells[queued(side, i)]];
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * The symmetry whose image of this position has the smallest hash.
+     * Symmetric positions all map to the same canonical image.
+     */
+    int canonicalSymmetry() {
+        int best = Symmetry.IDENTITY;
+        long bestHash = hash(Symmetry.IDENTITY);
+        for (int t = 1; t < Symmetry.COUNT; t++) {
+            long h = hash(t);
+            if (Long.compareUnsigned(h, bestHash) < 0) {
+                bestHash = h;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A copy of this position with every mark moved by the given symmetry
+     */
+    Position transformed(int symmetry) {
+        Position image = new Position(this);
+        for (int side = 0; side < 2; side++) {
+            image.masks[side] = Symmetry.mask(symmetry, masks[side]);
+            for (int i = 0; i < QUEUE_CAPACITY; i++) {
+                image.queue[side * QUEUE_CAPACITY + i] = Symmetry.cell(symmetry, queue[side * QUEUE_CAPACITY + i]);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Side that has a completed line, or NONE
+     */
+    int winner() {
+        if (isWin(masks[0])) return 0;
+        if (isWin(masks[1])) return 1;
+        return NONE;
+    }
+
+    static boolean isWin(int mask) {
+        return WIN[mask];
+    }
+
+    /**
+     * Cells (occupied or not) that would complete a line for the given mask
+     */
+    static int completing(int mask) {
+        return COMPLETING[mask];
+    }
+}
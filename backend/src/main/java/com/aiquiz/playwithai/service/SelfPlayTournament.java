@@ -0,0 +1,353 @@
+package com.aiquiz.playwithai.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+import com.aiquiz.playwithai.model.BoardResponse;
+
+/**
+ * Headless self-play between two AiService configurations, for engine strength and throughput.
+ *
+ * Usage:
+ *   SelfPlayTournament [options]
+ *     --a hard | medium | easy | mcts:&lt;difficulty&gt;   first player config (default hard)
+ *     --b ...                                      second player config (default medium)
+ *     --games N          games to play (default 10000); A starts the even-numbered ones
+ *     --threads N        worker threads (default: one per core)
+ *     --seed N           base seed; game i always replays the same with the same options (default 42)
+ *     --size N --win K --vanish V                  board, line and vanish length (default 3 3 3)
+ *     --opening N        random plies before the engines take over, so games differ (default 2)
+ *     --max-plies N      longer games are scored as draws (default 200)
+ *     --budget-ms N      per-move time budget; 0 = depth caps only, which keeps runs reproducible (default 0)
+ *     --playouts N       MCTS playouts per move (default 2000)
+ *     --tablebase FILE   tablebase for "hard"
+ *     --tt-entries N     transposition table per worker and side; not reproducible across runs (default 0 = off)
+ *     --min-score X      exit with status 1 if A scores below X (wins + draws / 2, 0-1), for regression checks
+ *
+ * Each worker has its own pair of engines and reseeds them from (seed, game index) before
+ * every game, so results do not depend on which thread plays which game.
+ */
+public final class SelfPlayTournament {
+
+    private static final long NO_BUDGET_MS = 3_600_000; // Depth caps, not the clock, end every search
+
+    private SelfPlayTournament() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Config config = new Config(options);
+        Result result = run(config);
+        result.print(config, System.out);
+        if (options.containsKey("min-score")) {
+            double minScore = Double.parseDouble(options.get("min-score"));
+            if (result.score() < minScore) {
+                System.out.printf("FAIL: A scored %.4f, below %.4f%n", result.score(), minScore);
+                System.exit(1);
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                System.err.println("Usage: SelfPlayTournament [--a hard] [--b medium] [--games N] [--threads N] [--seed N]"
+                                   + " [--size N --win K --vanish V] [--opening N] [--max-plies N] [--budget-ms N]"
+                                   + " [--playouts N] [--tablebase FILE] [--tt-entries N] [--min-score X]");
+                System.exit(2);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    static Result run(Config config) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads, r -> {
+            Thread thread = new Thread(r, "self-play");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicLong nextGame = new AtomicLong();
+        long start = System.nanoTime();
+        List<Future<Result>> results = new ArrayList<>();
+        for (int t = 0; t < config.threads; t++) {
+            results.add(workers.submit(() -> play(config, nextGame)));
+        }
+        Result total = new Result();
+        for (Future<Result> result : results) {
+            total.add(result.get());
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        workers.shutdown();
+        return total;
+    }
+
+    /**
+     * Play games until none are left, on this worker's own engines
+     */
+    private static Result play(Config config, AtomicLong nextGame) throws IOException {
+        AiService a = config.engine(config.a);
+        AiService b = config.engine(config.b);
+        Result result = new Result();
+        for (long game; (game = nextGame.getAndIncrement()) < config.games; ) {
+            long seed = config.seed * 1_000_003L + game;
+            a.reseed(seed);
+            b.reseed(~seed);
+            playGame(config, a, b, game % 2 == 0, new Random(seed), result);
+        }
+        a.shutdown();
+        b.shutdown();
+        return result;
+    }
+
+    private static void playGame(Config config, AiService a, AiService b, boolean aStarts, Random random, Result result) {
+        int cells = config.size * config.size;
+        GridGeometry geometry = GridGeometry.of(config.size, config.win);
+        List<String> board = new ArrayList<>(Collections.nCopies(cells, (String) null));
+        List<Integer> xMoves = new ArrayList<>();
+        List<Integer> oMoves = new ArrayList<>();
+        String mark = "X";
+        for (int ply = 0; ply < config.maxPlies; ply++) {
+            boolean aToMove = aStarts == mark.equals("X");
+            List<Integer> mine = mark.equals("X") ? xMoves : oMoves;
+            List<Integer> theirs = mark.equals("X") ? oMoves : xMoves;
+
+            int move;
+            if (ply < config.opening) {
+                do {
+                    move = random.nextInt(cells);
+                } while (board.get(move) != null);
+            } else {
+                BoardRequest request = new BoardRequest(board, mark, aToMove ? config.a.difficulty : config.b.difficulty,
+                                                        theirs, mine);
+                if (!config.classic()) {
+                    request.setBoardSize(config.size);
+                    request.setWinLength(config.win);
+                    request.setVanishLength(config.vanish);
+                }
+                long moveStart = System.nanoTime();
+                BoardResponse response = (aToMove ? a : b).makeAiMove(request);
+                (aToMove ? result.latencyA : result.latencyB).record(System.nanoTime() - moveStart);
+                move = response.getMoveIndex();
+                if (move < 0 || move >= cells || board.get(move) != null) {
+                    throw new IllegalStateException("Engine " + (aToMove ? "A" : "B") + " played " + move + " on " + board);
+                }
+            }
+
+            // Same rules as the engines: the win is checked before the oldest mark vanishes
+            board.set(move, mark);
+            mine.add(move);
+            if (completesLine(geometry, board, mark, move)) {
+                result.finish(aToMove ? 1 : -1, ply + 1);
+                return;
+            }
+            if (config.vanish > 0 && mine.size() > config.vanish) {
+                board.set(mine.remove(0), null);
+            }
+            if (!board.contains(null)) {
+                break;
+            }
+            mark = mark.equals("X") ? "O" : "X";
+        }
+        result.finish(0, config.maxPlies);
+    }
+
+    private static boolean completesLine(GridGeometry geometry, List<String> board, String mark, int move) {
+        for (int line : geometry.linesThrough[move]) {
+            boolean complete = true;
+            for (int cell = 0; cell < geometry.cells && complete; cell++) {
+                if (GridGeometry.test(geometry.lines, line * geometry.words, cell)) {
+                    complete = mark.equals(board.get(cell));
+                }
+            }
+            if (complete) return true;
+        }
+        return false;
+    }
+
+    /**
+     * One side's engine: a difficulty, optionally searched by MCTS ("mcts:medium")
+     */
+    static final class Side {
+        final String name;
+        final String difficulty;
+        final boolean mcts;
+
+        Side(String name) {
+            this.name = name;
+            this.mcts = name.startsWith("mcts:");
+            this.difficulty = mcts ? name.substring("mcts:".length()) : name;
+        }
+    }
+
+    static final class Config {
+        final Side a;
+        final Side b;
+        final long games;
+        final int threads;
+        final long seed;
+        final int size;
+        final int win;
+        final int vanish;
+        final int opening;
+        final int maxPlies;
+        final long budgetMs;
+        final long playouts;
+        final String tablebase;
+        final int ttEntries;
+
+        Config(Map<String, String> options) {
+            this.a = new Side(options.getOrDefault("a", "hard"));
+            this.b = new Side(options.getOrDefault("b", "medium"));
+            this.games = Long.parseLong(options.getOrDefault("games", "10000"));
+            this.threads = Integer.parseInt(options.getOrDefault("threads",
+                                                                 String.valueOf(Runtime.getRuntime().availableProcessors())));
+            this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+            this.size = Integer.parseInt(options.getOrDefault("size", "3"));
+            this.win = Integer.parseInt(options.getOrDefault("win", "3"));
+            this.vanish = Integer.parseInt(options.getOrDefault("vanish", String.valueOf(win)));
+            this.opening = Integer.parseInt(options.getOrDefault("opening", "2"));
+            this.maxPlies = Integer.parseInt(options.getOrDefault("max-plies", "200"));
+            this.budgetMs = Long.parseLong(options.getOrDefault("budget-ms", "0"));
+            this.playouts = Long.parseLong(options.getOrDefault("playouts", "2000"));
+            this.tablebase = options.getOrDefault("tablebase", "");
+            this.ttEntries = Integer.parseInt(options.getOrDefault("tt-entries", "0"));
+        }
+
+        boolean classic() {
+            return size == 3 && win == 3 && vanish == Position.MAX_MARKS;
+        }
+
+        AiService engine(Side side) throws IOException {
+            long budget = budgetMs > 0 ? budgetMs : NO_BUDGET_MS;
+            MctsEngine mcts = side.mcts
+                ? new MctsEngine(side.difficulty, budget, budgetMs > 0 ? 0 : playouts, 1.41, 1, 64, 250_000)
+                : MctsEngine.disabled();
+            Tablebase table = tablebase.isEmpty() ? Tablebase.disabled() : Tablebase.load(Path.of(tablebase));
+            TranspositionTable tt = ttEntries > 0 ? new TranspositionTable(ttEntries) : TranspositionTable.disabled();
+            return new AiService(table, tt, AiMetrics.standalone(), mcts, budget, budget, 1, 0);
+        }
+    }
+
+    static final class Result {
+        long games;
+        long aWins;
+        long bWins;
+        long draws;
+        long plies;
+        long elapsedNanos;
+        final LatencyHistogram latencyA = new LatencyHistogram();
+        final LatencyHistogram latencyB = new LatencyHistogram();
+
+        void finish(int outcome, int length) {
+            games++;
+            plies += length;
+            if (outcome > 0) aWins++;
+            else if (outcome < 0) bWins++;
+            else draws++;
+        }
+
+        void add(Result other) {
+            games += other.games;
+            aWins += other.aWins;
+            bWins += other.bWins;
+            draws += other.draws;
+            plies += other.plies;
+            latencyA.add(other.latencyA);
+            latencyB.add(other.latencyB);
+        }
+
+        double score() {
+            return games == 0 ? 0 : (aWins + draws / 2.0) / games;
+        }
+
+        void print(Config config, java.io.PrintStream out) {
+            double seconds = elapsedNanos / 1e9;
+            out.printf("A=%s  B=%s  board %dx%d, %d in a row, vanish %d  games %d  threads %d  seed %d%n",
+                       config.a.name, config.b.name, config.size, config.size, config.win, config.vanish,
+                       games, config.threads, config.seed);
+            out.printf("Throughput: %.1f games/s, %.0f moves/s (%.1f s)%n",
+                       games / seconds, (latencyA.count + latencyB.count) / seconds, seconds);
+            out.printf("A wins %.2f%%  B wins %.2f%%  draws %.2f%%  A score %.4f%n",
+                       100.0 * aWins / games, 100.0 * bWins / games, 100.0 * draws / games, score());
+            out.printf("Average length: %.2f plies%n", (double) plies / games);
+            out.println("Move latency (us)      p50       p90       p99     p99.9       max");
+            latencyA.print("A " + config.a.name, out);
+            latencyB.print("B " + config.b.name, out);
+        }
+    }
+
+    /**
+     * Log-linear latency buckets: 16 per power of two, so percentiles are within about 6%
+     * and recording never allocates
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKETS = 16;
+        private final long[] counts = new long[64 * SUB_BUCKETS];
+        long count;
+        long max;
+
+        void record(long nanos) {
+            counts[bucket(Math.max(1, nanos))]++;
+            count++;
+            max = Math.max(max, nanos);
+        }
+
+        void add(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        private static int bucket(long nanos) {
+            int power = 63 - Long.numberOfLeadingZeros(nanos);
+            int fraction = power < 4 ? (int) (nanos << (4 - power)) & (SUB_BUCKETS - 1)
+                                     : (int) (nanos >>> (power - 4)) & (SUB_BUCKETS - 1);
+            return power * SUB_BUCKETS + fraction;
+        }
+
+        private static long upperBound(int bucket) {
+            int power = bucket / SUB_BUCKETS;
+            int fraction = bucket % SUB_BUCKETS;
+            return power < 4 ? (SUB_BUCKETS + fraction + 1) >>> (4 - power)
+                             : (long) (SUB_BUCKETS + fraction + 1) << (power - 4);
+        }
+
+        long percentile(double p) {
+            long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        void print(String label, java.io.PrintStream out) {
+            if (count == 0) {
+                out.printf("  %-18s (no searched moves)%n", label);
+                return;
+            }
+            out.printf("  %-18s %9.1f %9.1f %9.1f %9.1f %9.1f%n", label,
+                       percentile(0.50) / 1e3, percentile(0.90) / 1e3, percentile(0.99) / 1e3,
+                       percentile(0.999) / 1e3, max / 1e3);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.aiquiz.playwithai.service;
+
+/**
+ * The 8 dihedral symmetries of the 3x3 board.
+ * The endless-game rules only care about lines and mark order, both of which every
+ * rotation and reflection preserves, so symmetric positions share a value and best move.
+ */
+final class Symmetry {
+
+    static final int COUNT = 8;
+    static final int IDENTITY = 0;
+
+    // CELL[t][i]: where cell i lands under symmetry t
+    static final int[][] CELL = new int[COUNT][Position.BOARD_SIZE];
+    // INVERSE[t]: the symmetry that undoes t
+    static final int[] INVERSE = new int[COUNT];
+    // MASK[t][m]: occupancy mask m under symmetry t
+    private static final int[][] MASK = new int[COUNT][Position.FULL_MASK + 1];
+
+    static {
+        for (int i = 0; i < Position.BOARD_SIZE; i++) {
+            int r = i / 3;
+            int c = i % 3;
+            CELL[0][i] = 3 * r + c;             // identity
+            CELL[1][i] = 3 * c + (2 - r);       // rotate 90
+            CELL[2][i] = 3 * (2 - r) + (2 - c); // rotate 180
+            CELL[3][i] = 3 * (2 - c) + r;       // rotate 270
+            CELL[4][i] = 3 * r + (2 - c);       // mirror left-right
+            CELL[5][i] = 3 * (2 - r) + c;       // mirror top-bottom
+            CELL[6][i] = 3 * c + r;             // main diagonal
+            CELL[7][i] = 3 * (2 - c) + (2 - r); // anti-diagonal
+        }
+        for (int t = 0; t < COUNT; t++) {
+            for (int u = 0; u < COUNT; u++) {
+                if (CELL[u][CELL[t][1]] == 1 && CELL[u][CELL[t][3]] == 3) {
+                    INVERSE[t] = u;
+                }
+            }
+            for (int mask = 0; mask <= Position.FULL_MASK; mask++) {
+                int mapped = 0;
+                for (int m = mask; m != 0; m &= m - 1) {
+                    mapped |= 1 << CELL[t][Integer.numberOfTrailingZeros(m)];
+                }
+                MASK[t][mask] = mapped;
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    static int mask(int symmetry, int mask) {
+        return MASK[symmetry][mask];
+    }
+
+    static int cell(int symmetry, int cell) {
+        return cell < 0 ? cell : CELL[symmetry][cell];
+    }
+
+    /**
+     * Map a cell chosen on the transformed board back to the original board
+     */
+    static int back(int symmetry, int cell) {
+        return cell < 0 ? cell : CELL[INVERSE[symmetry]][cell];
+    }
+}
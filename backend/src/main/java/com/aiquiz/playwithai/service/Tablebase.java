@@ -0,0 +1,249 @@
+package com.aiquiz.playwithai.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Perfect-play tablebase for the endless game, built offline by TablebaseGenerator.
+ *
+ * Every position where both sides' marks are all in their move queues (at most 3 each)
+ * has one byte, seen from the side to move: the result in the top two bits and the
+ * distance to that result in plies in the low six. The file is memory-mapped read-only.
+ */
+@Component
+public class Tablebase {
+
+    private static final Logger log = LoggerFactory.getLogger(Tablebase.class);
+
+    static final int MAGIC = 0x45545442; // "ETTB"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 12;
+
+    static final int DRAW = 0;
+    static final int WIN = 1;
+    static final int LOSS = 2;
+    static final int MAX_DISTANCE = 0x3F;
+
+    static final int SIZE;
+    // OFFSETS[k][j]: first index for positions where the side to move has k marks and the opponent j
+    private static final int[][] OFFSETS = new int[Position.MAX_MARKS + 1][Position.MAX_MARKS + 1];
+
+    static {
+        int offset = 0;
+        for (int k = 0; k <= Position.MAX_MARKS; k++) {
+            for (int j = 0; j <= Position.MAX_MARKS; j++) {
+                OFFSETS[k][j] = offset;
+                offset += arrangements(k + j);
+            }
+        }
+        SIZE = offset;
+    }
+
+    private final ByteBuffer entries; // null when no tablebase is loaded
+
+    @Autowired
+    public Tablebase(@Value("${ai.tablebase.path:}") String path) {
+        this(open(path));
+    }
+
+    private Tablebase(ByteBuffer entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * A tablebase with nothing loaded; every probe misses
+     */
+    public static Tablebase disabled() {
+        return new Tablebase((ByteBuffer) null);
+    }
+
+    static Tablebase load(Path path) throws IOException {
+        return new Tablebase(map(path));
+    }
+
+    public boolean isLoaded() {
+        return entries != null;
+    }
+
+    private static ByteBuffer open(String path) {
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = map(Path.of(path));
+            log.info("Loaded endless-game tablebase from {} ({} positions)", path, SIZE);
+            return buffer;
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Tablebase {} not available, hard difficulty falls back to minimax: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() != HEADER_BYTES + SIZE
+                    || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != SIZE) {
+                throw new IllegalStateException("unrecognised tablebase format");
+            }
+            return buffer.position(HEADER_BYTES).slice();
+        }
+    }
+
+    static void write(Path path, byte[] table) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putInt(table.length);
+        byte[] file = new byte[HEADER_BYTES + table.length];
+        System.arraycopy(header.array(), 0, file, 0, HEADER_BYTES);
+        System.arraycopy(table, 0, file, HEADER_BYTES, table.length);
+        Files.write(path, file);
+    }
+
+    /**
+     * Raw entry for a position, or -1 when it is not covered or nothing is loaded
+     */
+    int probe(Position position) {
+        if (entries == null) return -1;
+        int index = index(position);
+        return index < 0 ? -1 : entries.get(index) & 0xFF;
+    }
+
+    static int result(int entry) {
+        return entry >>> 6;
+    }
+
+    static int distance(int entry) {
+        return entry & MAX_DISTANCE;
+    }
+
+    static byte entry(int result, int distance) {
+        return (byte) ((result << 6) | distance);
+    }
+
+    /**
+     * Perfect move for the side to move: the fastest win, else a draw, else the slowest loss.
+     * Returns -1 when the position is not covered so the caller can search instead.
+     */
+    int bestMove(Position position) {
+        if (entries == null || position.winner() != Position.NONE || index(position) < 0) {
+            return -1;
+        }
+        int side = position.sideToMove();
+        int bestMove = -1;
+        int bestRank = Integer.MIN_VALUE;
+        for (int m = position.empty(); m != 0; m &= m - 1) {
+            int move = Integer.numberOfTrailingZeros(m);
+            if (Position.isWin(position.mask(side) | (1 << move))) {
+                return move;
+            }
+            int vanished = position.make(move);
+            int entry = probe(position);
+            position.unmake(move, vanished);
+            if (entry < 0) return -1;
+
+            // Entries are from the opponent's point of view after our move
+            int rank = switch (result(entry)) {
+                case LOSS -> 2 * MAX_DISTANCE - distance(entry);
+                case WIN -> -2 * MAX_DISTANCE + distance(entry);
+                default -> 0;
+            };
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Dense index of a position from the side to move's point of view,
+     * or -1 if some mark on the board is not in its side's move queue
+     */
+    static int index(Position position) {
+        int me = position.sideToMove();
+        int them = me ^ 1;
+        int k = position.count(me);
+        int j = position.count(them);
+        if (k > Position.MAX_MARKS || j > Position.MAX_MARKS
+                || k != Integer.bitCount(position.mask(me)) || j != Integer.bitCount(position.mask(them))) {
+            return -1;
+        }
+        int used = 0;
+        int rank = 0;
+        for (int i = 0; i < k + j; i++) {
+            int cell = i < k ? position.queued(me, i) : position.queued(them, i - k);
+            int below = Integer.bitCount(~used & ((1 << cell) - 1));
+            rank = rank * (Position.BOARD_SIZE - i) + below;
+            used |= 1 << cell;
+        }
+        return OFFSETS[k][j] + rank;
+    }
+
+    /**
+     * Inverse of index: rebuild the position with side 0 to move
+     */
+    static Position position(int index) {
+        int k = 0;
+        int j = 0;
+        for (int a = 0; a <= Position.MAX_MARKS; a++) {
+            for (int b = 0; b <= Position.MAX_MARKS; b++) {
+                if (OFFSETS[a][b] <= index) {
+                    k = a;
+                    j = b;
+                }
+            }
+        }
+        int n = k + j;
+        int[] digits = new int[n];
+        int rank = index - OFFSETS[k][j];
+        for (int i = n - 1; i >= 0; i--) {
+            digits[i] = rank % (Position.BOARD_SIZE - i);
+            rank /= Position.BOARD_SIZE - i;
+        }
+
+        int used = 0;
+        int[] cells = new int[n];
+        for (int i = 0; i < n; i++) {
+            int free = ~used & Position.FULL_MASK;
+            for (int skip = digits[i]; skip > 0; skip--) {
+                free &= free - 1;
+            }
+            cells[i] = Integer.numberOfTrailingZeros(free);
+            used |= 1 << cells[i];
+        }
+
+        List<Integer> mine = new ArrayList<>(k);
+        List<Integer> theirs = new ArrayList<>(j);
+        int mineMask = 0;
+        int theirsMask = 0;
+        for (int i = 0; i < n; i++) {
+            if (i < k) {
+                mine.add(cells[i]);
+                mineMask |= 1 << cells[i];
+            } else {
+                theirs.add(cells[i]);
+                theirsMask |= 1 << cells[i];
+            }
+        }
+        return new Position(mineMask, theirsMask, mine, theirs, 0);
+    }
+
+    private static int arrangements(int n) {
+        int count = 1;
+        for (int i = 0; i < n; i++) {
+            count *= Position.BOARD_SIZE - i;
+        }
+        return count;
+    }
+}
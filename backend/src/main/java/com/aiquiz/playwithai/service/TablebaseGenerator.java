@@ -0,0 +1,174 @@
+package com.aiquiz.playwithai.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Offline retrograde solver for the endless game.
+ *
+ * Usage:
+ *   TablebaseGenerator &lt;output-file&gt;                     solve every position and write the tablebase
+ *   TablebaseGenerator --verify &lt;file&gt; [samples] [depth]  check the tablebase against minimax
+ */
+public final class TablebaseGenerator {
+
+    private static final int UNSOLVED = -1;
+    private static final int WINNING_MOVE = -1; // Successor slot for a move that completes a line
+
+    private TablebaseGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("--verify")) {
+            int samples = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+            int depth = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+            int mismatches = verify(Tablebase.load(Path.of(args[1])), samples, depth, new Random(42));
+            System.out.println(mismatches == 0 ? "Tablebase agrees with minimax" : mismatches + " mismatches");
+            System.exit(mismatches == 0 ? 0 : 1);
+        } else if (args.length == 1) {
+            long start = System.nanoTime();
+            byte[] table = solve();
+            Tablebase.write(Path.of(args[0]), table);
+            System.out.printf("Solved %d positions in %d ms -> %s%n",
+                              table.length, (System.nanoTime() - start) / 1_000_000, args[0]);
+        } else {
+            System.err.println("Usage: TablebaseGenerator <output-file> | --verify <file> [samples] [depth]");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Retrograde analysis by distance layers: a position is won in d plies if some move
+     * reaches a position lost in d-1, and lost in d if every move reaches a position won
+     * in at most d-1 (with at least one won in exactly d-1). Whatever is never resolved is a draw.
+     */
+    static byte[] solve() {
+        int size = Tablebase.SIZE;
+        int[] result = new int[size];
+        int[] distance = new int[size];
+        // Successor indices per position
+        int[][] successors = new int[size][];
+
+        for (int index = 0; index < size; index++) {
+            Position position = Tablebase.position(index);
+            distance[index] = UNSOLVED;
+            if (Position.isWin(position.mask(1))) {
+                // The previous move completed a line: the side to move has lost
+                result[index] = Tablebase.LOSS;
+                distance[index] = 0;
+                continue;
+            }
+            if (Position.isWin(position.mask(0))) {
+                // Unreachable (the game would already be over); stored as won so nothing depends on it
+                result[index] = Tablebase.WIN;
+                distance[index] = 0;
+                continue;
+            }
+            int empty = position.empty();
+            int[] next = new int[Integer.bitCount(empty)];
+            int n = 0;
+            for (int m = empty; m != 0; m &= m - 1) {
+                int move = Integer.numberOfTrailingZeros(m);
+                if (Position.isWin(position.mask(0) | (1 << move))) {
+                    next[n++] = WINNING_MOVE;
+                    continue;
+                }
+                int vanished = position.make(move);
+                next[n++] = Tablebase.index(position);
+                position.unmake(move, vanished);
+            }
+            successors[index] = next;
+        }
+
+        for (int d = 1; ; d++) {
+            int resolved = 0;
+            for (int index = 0; index < size; index++) {
+                if (distance[index] != UNSOLVED) continue;
+
+                boolean win = false;
+                boolean allWon = true;
+                boolean wonInPrevious = false;
+                for (int next : successors[index]) {
+                    if (next == WINNING_MOVE) {
+                        // Only reachable at d == 1: the position is resolved right there
+                        win = true;
+                        break;
+                    }
+                    int nd = distance[next];
+                    // Only successors settled in earlier layers count, so results are layer-exact
+                    if (nd == UNSOLVED || nd >= d) {
+                        allWon = false;
+                        continue;
+                    }
+                    if (result[next] == Tablebase.LOSS && nd == d - 1) {
+                        win = true;
+                        break;
+                    }
+                    if (result[next] != Tablebase.WIN) {
+                        allWon = false;
+                    } else if (nd == d - 1) {
+                        wonInPrevious = true;
+                    }
+                }
+
+                if (win) {
+                    result[index] = Tablebase.WIN;
+                    distance[index] = d;
+                    resolved++;
+                } else if (allWon && wonInPrevious) {
+                    result[index] = Tablebase.LOSS;
+                    distance[index] = d;
+                    resolved++;
+                }
+            }
+            if (resolved == 0) break;
+            if (d > Tablebase.MAX_DISTANCE) {
+                throw new IllegalStateException("Distance " + d + " does not fit in a tablebase entry");
+            }
+        }
+
+        byte[] table = new byte[size];
+        for (int index = 0; index < size; index++) {
+            table[index] = distance[index] == UNSOLVED
+                ? Tablebase.entry(Tablebase.DRAW, 0)
+                : Tablebase.entry(result[index], distance[index]);
+        }
+        return table;
+    }
+
+    /**
+     * Compare tablebase results with a full-window minimax on random covered positions.
+     * Wins and losses within the search horizon must match exactly, including distance;
+     * draws must never be scored as a forced result.
+     */
+    static int verify(Tablebase tablebase, int samples, int depth, Random random) {
+        AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(), 0, 0);
+        int mismatches = 0;
+        for (int checked = 0; checked < samples; ) {
+            Position position = Tablebase.position(random.nextInt(Tablebase.SIZE));
+            if (position.winner() != Position.NONE) continue;
+            checked++;
+
+            int entry = tablebase.probe(position);
+            int score = aiService.minimax(position, depth, true, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            int expectedResult = Tablebase.result(entry);
+            int expectedDistance = Tablebase.distance(entry);
+
+            boolean ok;
+            if (score >= AiService.WIN_SCORE) {
+                ok = expectedResult == Tablebase.WIN && expectedDistance == depth - (score - AiService.WIN_SCORE) / 10;
+            } else if (score <= AiService.LOSE_SCORE) {
+                ok = expectedResult == Tablebase.LOSS && expectedDistance == depth + (score - AiService.LOSE_SCORE) / 10;
+            } else {
+                ok = expectedResult == Tablebase.DRAW || expectedDistance > depth;
+            }
+            if (!ok) {
+                mismatches++;
+                System.err.printf("Mismatch at index %d: tablebase result %d in %d, minimax score %d%n",
+                                  Tablebase.index(position), expectedResult, expectedDistance, score);
+            }
+        }
+        return mismatches;
+    }
+}
@@ -0,0 +1,146 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded transposition table shared by every search on this instance.
+ *
+ * Entries live in buckets of four. Each entry is two longs, the key XOR-ed with the
+ * data, so a torn write from a concurrent store just reads back as a miss (no locks).
+ * Within a bucket the entry to replace is the one with the least depth, where every
+ * search generation it has aged counts against it.
+ */
+@Component
+public class TranspositionTable {
+
+    static final int EXACT = 0;
+    static final int LOWER = 1; // Score is a lower bound (search failed high)
+    static final int UPPER = 2; // Score is an upper bound (search failed low)
+    static final long MISS = 0L;
+
+    private static final int BUCKET = 4;
+    private static final int NO_MOVE = 0xF;
+    private static final long VALID = 1L << 63;
+    private static final int AGE_PENALTY = 4;
+
+    private final AtomicLongArray slots; // [key ^ data, data] per entry
+    private final int bucketMask;
+    private final AtomicInteger generation = new AtomicInteger();
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    @Autowired
+    public TranspositionTable(@Value("${ai.tt.entries:262144}") int entries) {
+        int capacity = entries <= 0 ? 0 : Math.max(BUCKET, Integer.highestOneBit(entries - 1) << 1);
+        this.slots = new AtomicLongArray(2 * capacity);
+        this.bucketMask = capacity / BUCKET - 1;
+    }
+
+    /**
+     * A table that never stores anything; every probe misses
+     */
+    public static TranspositionTable disabled() {
+        return new TranspositionTable(0);
+    }
+
+    /**
+     * Start a new search generation so older entries become preferred victims
+     */
+    void newSearch() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Packed entry for the key, or MISS
+     */
+    long probe(long key) {
+        if (bucketMask < 0) return MISS;
+        probes.increment();
+        int base = bucket(key);
+        for (int i = base; i < base + BUCKET; i++) {
+            long data = slots.get(2 * i + 1);
+            if (data != MISS && (slots.get(2 * i) ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    void store(long key, int score, int depth, int bound, int move) {
+        if (bucketMask < 0) return;
+        int age = generation.get() & 0xFF;
+        int base = bucket(key);
+        int victim = base;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET; i++) {
+            long data = slots.get(2 * i + 1);
+            if (data == MISS || (slots.get(2 * i) ^ data) == key) {
+                victim = i;
+                break;
+            }
+            int worth = depth(data) - AGE_PENALTY * ((age - age(data)) & 0xFF);
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = i;
+            }
+        }
+
+        long data = VALID
+            | ((long) age << 28)
+            | ((long) (move < 0 ? NO_MOVE : move) << 24)
+            | ((long) bound << 22)
+            | ((long) Math.min(depth, 0x3F) << 16)
+            | ((score + 0x8000) & 0xFFFFL);
+        slots.set(2 * victim + 1, data);
+        slots.set(2 * victim, key ^ data);
+    }
+
+    static int score(long data) {
+        return (int) (data & 0xFFFF) - 0x8000;
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> 16) & 0x3F;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> 22) & 0x3;
+    }
+
+    static int move(long data) {
+        int move = (int) (data >>> 24) & 0xF;
+        return move == NO_MOVE ? Position.NONE : move;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> 28) & 0xFF;
+    }
+
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET;
+    }
+
+    public int capacity() {
+        return slots.length() / 2;
+    }
+
+    public long probes() {
+        return probes.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public double hitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
+    }
+}
@@ -0,0 +1,9 @@
+-- Leaderboard table as Hibernate used to create it (ddl-auto=update); a no-op on existing databases
+CREATE TABLE IF NOT EXISTS leaderboard (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name               VARCHAR(255),
+    phone_number       VARCHAR(255),
+    email              VARCHAR(255),
+    time_taken_seconds BIGINT NOT NULL, -- Holds milliseconds despite the name
+    date_played        TIMESTAMP(6)
+);
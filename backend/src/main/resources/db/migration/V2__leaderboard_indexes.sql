@@ -0,0 +1,13 @@
+-- Keep only each player's best row (earliest id on ties) so the unique index can be built
+DELETE FROM leaderboard a
+USING leaderboard b
+WHERE a.phone_number = b.phone_number
+  AND a.email = b.email
+  AND (b.time_taken_seconds < a.time_taken_seconds
+       OR (b.time_taken_seconds = a.time_taken_seconds AND b.id < a.id));
+
+-- Conflict target of the submission upsert
+CREATE UNIQUE INDEX IF NOT EXISTS ux_leaderboard_phone_email ON leaderboard (phone_number, email);
+
+-- Ranking order, also used by keyset pagination on (time, id)
+CREATE INDEX IF NOT EXISTS ix_leaderboard_time_id ON leaderboard (time_taken_seconds, id);
@@ -0,0 +1,13 @@
+-- V2 compared phone numbers and emails with =, so rows missing either were never duplicates and the
+-- upsert inserted a new row for every such submission. Treat NULLs as equal, as the upsert does now.
+-- NULLS NOT DISTINCT needs PostgreSQL 15 or later.
+DELETE FROM leaderboard a
+USING leaderboard b
+WHERE a.phone_number IS NOT DISTINCT FROM b.phone_number
+  AND a.email IS NOT DISTINCT FROM b.email
+  AND (b.time_taken_seconds < a.time_taken_seconds
+       OR (b.time_taken_seconds = a.time_taken_seconds AND b.id < a.id));
+
+-- Same name and columns, so ON CONFLICT (phone_number, email) still infers it
+DROP INDEX IF EXISTS ux_leaderboard_phone_email;
+CREATE UNIQUE INDEX ux_leaderboard_phone_email ON leaderboard (phone_number, email) NULLS NOT DISTINCT;
@@ -0,0 +1,59 @@
+package com.aiquiz.playwithai.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.aiquiz.playwithai.service.AiBusyException;
+import com.aiquiz.playwithai.service.AiComputePool;
+import com.aiquiz.playwithai.service.LeaderboardBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AiBusyHandlerTests {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AiComputePool pool = new AiComputePool(new SimpleMeterRegistry(), 1, 1, "reject", 2, 7);
+	private final AiBusyHandler handler = new AiBusyHandler();
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		pool.shutdown();
+	}
+
+	@Test
+	void fullPoolAnswersTooManyRequests() {
+		for (int i = 0; i < 2; i++) {
+			pool.submit(maxDepth -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			});
+		}
+		AiBusyException busy = assertThrows(AiBusyException.class, () -> pool.call(maxDepth -> maxDepth));
+
+		ResponseEntity<Map<String, Object>> response = handler.handleBusy(busy);
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+		assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertEquals(busy.getMessage(), response.getBody().get("error"));
+	}
+
+	@Test
+	void fullLeaderboardQueueAnswersTooManyRequests() {
+		ResponseEntity<Map<String, Object>> response = handler.handleLeaderboardBusy(new LeaderboardBusyException(2));
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+		assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+}
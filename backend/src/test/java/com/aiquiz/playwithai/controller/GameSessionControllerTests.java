@@ -0,0 +1,73 @@
+package com.aiquiz.playwithai.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.aiquiz.playwithai.model.SessionResponse;
+import com.aiquiz.playwithai.service.AiBusyException;
+import com.aiquiz.playwithai.service.GameSessionService;
+
+// How each exception from GameSessionService.play reaches the client
+@WebMvcTest(GameSessionController.class)
+class GameSessionControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private GameSessionService sessionService;
+
+	@Test
+	void moveAnswersWithTheAiReply() throws Exception {
+		when(sessionService.play("game", 4)).thenReturn(new SessionResponse("game", 0, false, null, 8));
+		move("game", 4)
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"gameId\":\"game\",\"aiMove\":0,\"gameOver\":false,\"searchDepth\":8}"));
+	}
+
+	@Test
+	void unknownGameIsNotFound() throws Exception {
+		when(sessionService.play("missing", 4)).thenThrow(new NoSuchElementException("No game missing"));
+		move("missing", 4).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void finishedGameIsAConflict() throws Exception {
+		when(sessionService.play("over", 4)).thenThrow(new IllegalStateException("Game over is already over"));
+		move("over", 4).andExpect(status().isConflict());
+	}
+
+	@Test
+	void takenCellIsABadRequest() throws Exception {
+		when(sessionService.play("game", 9)).thenThrow(new IllegalArgumentException("Cell 9 is not available"));
+		move("game", 9).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void fullAiPoolIsTooManyRequests() throws Exception {
+		when(sessionService.play("game", 4)).thenThrow(new AiBusyException(2));
+		move("game", 4)
+			.andExpect(status().isTooManyRequests())
+			.andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+	}
+
+	private ResultActions move(String gameId, int index) throws Exception {
+		return mockMvc.perform(post("/api/game/session/{gameId}/move", gameId)
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"index\":" + index + "}"));
+	}
+}
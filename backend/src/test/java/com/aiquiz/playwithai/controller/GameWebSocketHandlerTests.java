@@ -0,0 +1,337 @@
+package com.aiquiz.playwithai.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.aiquiz.playwithai.service.AiComputePool;
+import com.aiquiz.playwithai.service.GameSessionPersistence;
+import com.aiquiz.playwithai.service.GameSessionService;
+import com.aiquiz.playwithai.service.TestEngines;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The text protocol of /ws/game against a real session service, on a pool of one thread
+ * with room for one queued task so tests can fill it
+ */
+class GameWebSocketHandlerTests {
+
+	private static final long WAIT_SECONDS = 10;
+
+	private final AtomicBoolean failing = new AtomicBoolean();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AiComputePool pool = new AiComputePool(new SimpleMeterRegistry(), 1, 1, "reject", 2, 3);
+	private final GameSessionService sessions = new GameSessionService(TestEngines.failingWhen(failing), pool,
+	                                                                   none(), 100, 30);
+	private final GameWebSocketHandler handler = new GameWebSocketHandler(sessions, 30);
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		pool.shutdown();
+	}
+
+	@Test
+	void humanStartGetsOnlyTheGameId() throws Exception {
+		Connection connection = connect("difficulty=medium&aiMark=O&aiStarts=false");
+		String game = connection.next();
+		assertTrue(game.startsWith("game "), game);
+		assertEquals(game.substring("game ".length()), connection.getAttributes().get("gameId"));
+		assertNull(connection.poll());
+		assertEquals(512, connection.getTextMessageSizeLimit());
+	}
+
+	@Test
+	void aiStartSendsTheGameIdThenItsMove() throws Exception {
+		Connection connection = connect("difficulty=hard&aiMark=X&aiStarts=true");
+		assertTrue(connection.next().startsWith("game "));
+		String move = connection.next();
+		assertTrue(move.matches("move [0-8]"), move);
+	}
+
+	@Test
+	void humanMoveIsAnsweredWithTheAiMove() throws Exception {
+		Connection connection = connect("difficulty=medium&aiMark=O&aiStarts=false");
+		connection.next();
+		handler.handleMessage(connection, new TextMessage("4"));
+		String move = connection.next();
+		assertTrue(move.matches("move [0-8]"), move);
+		assertFalse(move.equals("move 4"));
+	}
+
+	@Test
+	void finishedGameReportsTheWinner() throws Exception {
+		// The human always takes the lowest free cell, which hard beats; each side keeps its last three marks
+		Connection connection = connect("difficulty=hard&aiMark=X&aiStarts=true");
+		connection.next();
+		Deque<Integer> ai = new ArrayDeque<>();
+		Deque<Integer> human = new ArrayDeque<>();
+		String reply = connection.next();
+		for (int turn = 0; turn < 50 && !reply.contains(" over "); turn++) {
+			place(ai, Integer.parseInt(reply.split(" ")[1]));
+			int cell = 0;
+			while (ai.contains(cell) || human.contains(cell)) cell++;
+			place(human, cell);
+			handler.handleMessage(connection, new TextMessage(String.valueOf(cell)));
+			reply = connection.next();
+		}
+		assertTrue(reply.matches("move [0-8] over X"), reply);
+	}
+
+	private static void place(Deque<Integer> marks, int cell) {
+		marks.addLast(cell);
+		if (marks.size() > 3) marks.removeFirst();
+	}
+
+	@Test
+	void malformedAndIllegalMovesGetErrors() throws Exception {
+		Connection connection = connect("difficulty=medium&aiMark=O&aiStarts=false");
+		connection.next();
+		handler.handleMessage(connection, new TextMessage("four"));
+		assertEquals("error Expected a cell index 0-8", connection.next());
+		handler.handleMessage(connection, new TextMessage("9"));
+		assertEquals("error Cell 9 is not available", connection.next());
+	}
+
+	@Test
+	void moveWhileTheAiIsOpeningGetsAnError() throws Exception {
+		// The only AI thread is busy, so the opening waits in the queue
+		blockPool(1);
+		Connection connection = connect("difficulty=hard&aiMark=X&aiStarts=true");
+		handler.handleMessage(connection, new TextMessage("4"));
+		assertEquals("error Game is not started yet", connection.next());
+
+		release.countDown();
+		assertTrue(connection.next().startsWith("game "));
+		assertTrue(connection.next().startsWith("move "));
+	}
+
+	@Test
+	void fullPoolAnswersMovesWithBusy() throws Exception {
+		Connection connection = connect("difficulty=medium&aiMark=O&aiStarts=false");
+		connection.next();
+		fillPool();
+		handler.handleMessage(connection, new TextMessage("4"));
+		assertEquals("busy 3", connection.next());
+		assertNull(connection.closedWith);
+	}
+
+	@Test
+	void fullPoolAtAnAiStartClosesWithTryAgainLater() throws Exception {
+		fillPool();
+		Connection connection = connect("difficulty=hard&aiMark=X&aiStarts=true");
+		assertEquals("busy 3", connection.next());
+		assertEquals(CloseStatus.SERVICE_OVERLOAD, connection.awaitClose());
+		assertNull(connection.getAttributes().get("gameId"));
+		assertEquals(0, sessions.activeSessions());
+	}
+
+	@Test
+	void failedAiStartClosesWithServerError() throws Exception {
+		failing.set(true);
+		Connection connection = connect("difficulty=hard&aiMark=X&aiStarts=true");
+		assertEquals("error search failed", connection.next());
+		assertEquals(CloseStatus.SERVER_ERROR, connection.awaitClose());
+	}
+
+	@Test
+	void closingTheSocketEndsTheGame() throws Exception {
+		Connection connection = connect("difficulty=medium&aiMark=O&aiStarts=false");
+		connection.next();
+		assertEquals(1, sessions.activeSessions());
+		handler.afterConnectionClosed(connection, CloseStatus.NORMAL);
+		assertEquals(0, sessions.activeSessions());
+	}
+
+	private Connection connect(String query) throws Exception {
+		Connection connection = new Connection(query);
+		handler.afterConnectionEstablished(connection);
+		return connection;
+	}
+
+	// One running, one queued: the next submit is rejected until release
+	private void fillPool() {
+		blockPool(2);
+	}
+
+	private void blockPool(int tasks) {
+		for (int i = 0; i < tasks; i++) {
+			pool.submit(maxDepth -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			});
+		}
+	}
+
+	private static ObjectProvider<GameSessionPersistence> none() {
+		return new ObjectProvider<>() {
+			@Override
+			public GameSessionPersistence getObject() {
+				throw new IllegalStateException("No persistence");
+			}
+
+			@Override
+			public GameSessionPersistence getObject(Object... args) {
+				throw new IllegalStateException("No persistence");
+			}
+
+			@Override
+			public GameSessionPersistence getIfAvailable() {
+				return null;
+			}
+
+			@Override
+			public GameSessionPersistence getIfUnique() {
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Collects what the handler sends and how it closes the socket
+	 */
+	private static final class Connection implements WebSocketSession {
+		private final URI uri;
+		private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+		private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+		private final CountDownLatch closed = new CountDownLatch(1);
+		private volatile CloseStatus closedWith;
+		private int textLimit;
+		private int binaryLimit;
+
+		Connection(String query) {
+			this.uri = URI.create("ws://localhost/ws/game?" + query);
+		}
+
+		String next() throws InterruptedException {
+			String message = sent.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+			assertTrue(message != null, "no message");
+			return message;
+		}
+
+		String poll() throws InterruptedException {
+			return sent.poll(100, TimeUnit.MILLISECONDS);
+		}
+
+		CloseStatus awaitClose() throws InterruptedException {
+			assertTrue(closed.await(WAIT_SECONDS, TimeUnit.SECONDS), "not closed");
+			return closedWith;
+		}
+
+		@Override
+		public String getId() {
+			return "test";
+		}
+
+		@Override
+		public URI getUri() {
+			return uri;
+		}
+
+		@Override
+		public HttpHeaders getHandshakeHeaders() {
+			return new HttpHeaders();
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return attributes;
+		}
+
+		@Override
+		public Principal getPrincipal() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getLocalAddress() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getRemoteAddress() {
+			return null;
+		}
+
+		@Override
+		public String getAcceptedProtocol() {
+			return null;
+		}
+
+		@Override
+		public void setTextMessageSizeLimit(int messageSizeLimit) {
+			textLimit = messageSizeLimit;
+		}
+
+		@Override
+		public int getTextMessageSizeLimit() {
+			return textLimit;
+		}
+
+		@Override
+		public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+			binaryLimit = messageSizeLimit;
+		}
+
+		@Override
+		public int getBinaryMessageSizeLimit() {
+			return binaryLimit;
+		}
+
+		@Override
+		public List<WebSocketExtension> getExtensions() {
+			return List.of();
+		}
+
+		@Override
+		public void sendMessage(WebSocketMessage<?> message) {
+			sent.add(((TextMessage) message).getPayload());
+		}
+
+		@Override
+		public boolean isOpen() {
+			return closedWith == null;
+		}
+
+		@Override
+		public void close() {
+			close(CloseStatus.NORMAL);
+		}
+
+		@Override
+		public void close(CloseStatus status) {
+			closedWith = status;
+			closed.countDown();
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.aiquiz.playwithai.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.aiquiz.playwithai.dto.RankedEntry;
+import com.aiquiz.playwithai.repository.LeaderboardRepository;
+import com.aiquiz.playwithai.service.LeaderboardExporter;
+import com.aiquiz.playwithai.service.LeaderboardIndex;
+import com.aiquiz.playwithai.service.LeaderboardSnapshot;
+import com.aiquiz.playwithai.service.LeaderboardWriteBehind;
+
+// The real snapshot over a stubbed index, so the ETag is computed exactly as in production
+@WebMvcTest(LeaderboardController.class)
+@Import(LeaderboardSnapshot.class)
+class LeaderboardControllerTests {
+
+	private static final LocalDateTime PLAYED = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private LeaderboardIndex index;
+
+	@MockitoBean
+	private LeaderboardRepository repository;
+
+	@MockitoBean
+	private LeaderboardExporter exporter;
+
+	@MockitoBean
+	private LeaderboardWriteBehind writeBehind;
+
+	private long topVersion;
+	private List<RankedEntry> entries;
+
+	@BeforeEach
+	void stubIndex() {
+		topVersion = 1;
+		entries = List.of(new RankedEntry(1, 7L, "ann", 4_000, PLAYED), new RankedEntry(2, 3L, "bob", 5_000, PLAYED));
+		when(index.topVersion()).thenAnswer(invocation -> topVersion);
+		when(index.topWithVersion(anyInt())).thenAnswer(invocation -> new LeaderboardIndex.Top(topVersion, entries));
+	}
+
+	@Test
+	void firstRequestGetsTheBodyWithAnETag() throws Exception {
+		mockMvc.perform(get("/api/leaderboard/top"))
+			.andExpect(status().isOk())
+			.andExpect(header().exists(HttpHeaders.ETAG))
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+			.andExpect(header().exists("X-Leaderboard-Version"))
+			.andExpect(content().json("[{\"rank\":1,\"id\":7,\"name\":\"ann\"},{\"rank\":2,\"id\":3,\"name\":\"bob\"}]"));
+	}
+
+	@Test
+	void matchingETagGetsNotModified() throws Exception {
+		String eTag = eTag();
+
+		mockMvc.perform(get("/api/leaderboard/top").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, eTag))
+			.andExpect(content().string(""));
+	}
+
+	@Test
+	void changedTopGetsTheNewBody() throws Exception {
+		String eTag = eTag();
+		topVersion = 2;
+		entries = List.of(new RankedEntry(1, 9L, "cy", 3_000, PLAYED), entries.get(0), entries.get(1));
+
+		String newETag = mockMvc.perform(get("/api/leaderboard/top").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[{\"id\":9},{\"id\":7},{\"id\":3}]"))
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(eTag, newETag);
+	}
+
+	@Test
+	void sameBodyAtAnotherVersionKeepsItsETag() throws Exception {
+		// What a restart or another instance looks like: a different version counter, the same players
+		String eTag = eTag();
+		topVersion = 41;
+
+		mockMvc.perform(get("/api/leaderboard/top").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isNotModified());
+	}
+
+	private String eTag() throws Exception {
+		return mockMvc.perform(get("/api/leaderboard/top"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+}
@@ -0,0 +1,112 @@
+package com.aiquiz.playwithai.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import com.aiquiz.playwithai.dto.LeaderboardRow;
+import com.aiquiz.playwithai.model.LeaderboardEntry;
+
+// Keyset queries are plain JPQL, so an embedded H2 schema from the entity is enough;
+// the Flyway migrations and the upsert are PostgreSQL-only (LeaderboardUpsertPostgresTests)
+@DataJpaTest(properties = {
+	"spring.flyway.enabled=false",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true",
+	"spring.data.jpa.repositories.bootstrap-mode=default"
+})
+class LeaderboardRepositoryTests {
+
+	@Autowired
+	private LeaderboardRepository repository;
+
+	private List<LeaderboardEntry> saved;
+
+	@BeforeEach
+	void saveTiedTimes() {
+		// Runs of equal times, saved out of order so ids and times are not in the same order
+		long[] times = { 300, 100, 200, 100, 100, 200, 50, 100, 300, 100 };
+		saved = new ArrayList<>();
+		for (int i = 0; i < times.length; i++) {
+			saved.add(repository.save(new LeaderboardEntry("player" + i, "phone" + i, "p" + i + "@example.com", times[i])));
+		}
+		repository.flush();
+	}
+
+	@Test
+	void pagesCoverEveryRowOnceInRankOrder() {
+		List<Long> expected = saved.stream()
+			.sorted(Comparator.comparingLong(LeaderboardEntry::getTimeTakenMs).thenComparing(LeaderboardEntry::getId))
+			.map(LeaderboardEntry::getId)
+			.toList();
+
+		for (int pageSize = 1; pageSize <= saved.size() + 1; pageSize++) {
+			assertEquals(expected, readAllPages(pageSize), "page size " + pageSize);
+		}
+	}
+
+	@Test
+	void cursorInsideATieResumesAfterTheLastId() {
+		List<LeaderboardRow> firstPage = repository.findPageAfter(Long.MIN_VALUE, Long.MIN_VALUE, Limit.of(3));
+		LeaderboardRow last = firstPage.get(2);
+		// 50, then the first two of the five rows at 100
+		assertEquals(100, last.getTimeTakenMs());
+
+		List<LeaderboardRow> next = repository.findPageAfter(last.getTimeTakenMs(), last.getId(), Limit.of(3));
+		assertEquals(100, next.get(0).getTimeTakenMs());
+		assertTrue(next.get(0).getId() > last.getId());
+		assertEquals(3, next.size());
+	}
+
+	@Test
+	void rowsAddedBehindTheCursorAreNotServedAgain() {
+		List<LeaderboardRow> firstPage = repository.findPageAfter(Long.MIN_VALUE, Long.MIN_VALUE, Limit.of(4));
+		LeaderboardRow last = firstPage.get(firstPage.size() - 1);
+
+		// Ties with the cursor row get a higher id, so they come after it; faster rows are behind it
+		LeaderboardEntry tie = repository.saveAndFlush(new LeaderboardEntry("tie", "tie", "tie@example.com", last.getTimeTakenMs()));
+		repository.saveAndFlush(new LeaderboardEntry("fast", "fast", "fast@example.com", 10));
+
+		List<Long> rest = repository.findPageAfter(last.getTimeTakenMs(), last.getId(), Limit.of(100)).stream()
+			.map(LeaderboardRow::getId)
+			.toList();
+		assertEquals(saved.size() - firstPage.size() + 1, rest.size());
+		assertTrue(rest.contains(tie.getId()));
+	}
+
+	@Test
+	void streamMatchesThePages() {
+		List<Long> streamed;
+		try (Stream<LeaderboardRow> rows = repository.streamAllOrdered()) {
+			streamed = rows.map(LeaderboardRow::getId).toList();
+		}
+		assertEquals(readAllPages(4), streamed);
+	}
+
+	private List<Long> readAllPages(int pageSize) {
+		List<Long> ids = new ArrayList<>();
+		long afterTime = Long.MIN_VALUE;
+		long afterId = Long.MIN_VALUE;
+		while (true) {
+			List<LeaderboardRow> page = repository.findPageAfter(afterTime, afterId, Limit.of(pageSize));
+			page.forEach(row -> ids.add(row.getId()));
+			if (page.size() < pageSize) {
+				return ids;
+			}
+			LeaderboardRow last = page.get(page.size() - 1);
+			afterTime = last.getTimeTakenMs();
+			afterId = last.getId();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.aiquiz.playwithai.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// The upsert and the V3 index are PostgreSQL-only, so these run the Flyway migrations on a real
+// server; NULLS NOT DISTINCT needs 15 or later. Each upsert commits on its own, as it does when
+// a score is submitted. Skipped where Docker is not available.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class LeaderboardUpsertPostgresTests {
+
+	@Container
+	@ServiceConnection
+	static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private LeaderboardRepository repository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void emptyTable() {
+		repository.deleteAllInBatch();
+	}
+
+	@Test
+	void upsertInsertsOnceThenKeepsTheBestTime() {
+		LeaderboardUpsertResult first = upsert("555-0100", "ada@example.com", 500);
+		assertTrue(first.getInserted());
+		assertNull(first.getPreviousTimeMs());
+		assertEquals(500, first.getTimeTakenMs());
+
+		LeaderboardUpsertResult slower = upsert("555-0100", "ada@example.com", 700);
+		assertFalse(slower.getInserted());
+		assertEquals(first.getId(), slower.getId());
+		assertEquals(500, (long) slower.getPreviousTimeMs());
+		assertEquals(500, slower.getTimeTakenMs());
+
+		LeaderboardUpsertResult faster = upsert("555-0100", "ada@example.com", 300);
+		assertFalse(faster.getInserted());
+		assertEquals(500, (long) faster.getPreviousTimeMs());
+		assertEquals(300, faster.getTimeTakenMs());
+		assertEquals(1, repository.count());
+	}
+
+	@Test
+	void missingPhoneOrEmailMatchesAnotherMissingOne() {
+		LeaderboardUpsertResult noPhone = upsert(null, "ada@example.com", 500);
+		LeaderboardUpsertResult noPhoneAgain = upsert(null, "ada@example.com", 400);
+		assertFalse(noPhoneAgain.getInserted());
+		assertEquals(noPhone.getId(), noPhoneAgain.getId());
+		assertEquals(500, (long) noPhoneAgain.getPreviousTimeMs());
+		assertEquals(400, noPhoneAgain.getTimeTakenMs());
+
+		LeaderboardUpsertResult neither = upsert(null, null, 900);
+		LeaderboardUpsertResult neitherAgain = upsert(null, null, 800);
+		assertFalse(neitherAgain.getInserted());
+		assertEquals(neither.getId(), neitherAgain.getId());
+		assertEquals(900, (long) neitherAgain.getPreviousTimeMs());
+
+		// A missing value still differs from a present one
+		LeaderboardUpsertResult withPhone = upsert("555-0100", "ada@example.com", 600);
+		assertTrue(withPhone.getInserted());
+		assertNull(withPhone.getPreviousTimeMs());
+		assertNotEquals(noPhone.getId(), withPhone.getId());
+		assertEquals(3, repository.count());
+	}
+
+	@Test
+	void uniqueIndexTreatsMissingContactsAsEqual() {
+		String insert = "INSERT INTO leaderboard (name, phone_number, email, time_taken_seconds) VALUES (?, ?, ?, ?)";
+		jdbcTemplate.update(insert, "first", null, "ada@example.com", 500L);
+		assertThrows(DataIntegrityViolationException.class,
+		             () -> jdbcTemplate.update(insert, "second", null, "ada@example.com", 400L));
+	}
+
+	private LeaderboardUpsertResult upsert(String phoneNumber, String email, long timeTakenMs) {
+		return repository.upsert("player", phoneNumber, email, timeTakenMs, LocalDateTime.now());
+	}
+}
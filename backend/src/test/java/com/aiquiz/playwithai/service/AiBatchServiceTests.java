@@ -0,0 +1,157 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+import com.aiquiz.playwithai.model.BoardResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AiBatchServiceTests {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicInteger searches = new AtomicInteger();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private AiComputePool pool; // Four threads unless a test sets a smaller one first
+
+	// Counts classic searches and holds each one until the test releases it, so batch items overlap
+	private final AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(),
+	                                                  AiMetrics.standalone(), 60_000, 60_000) {
+		@Override
+		MoveResult chooseMove(Position requested, String difficulty, Long clientDeadlineMs, int maxDepth) {
+			searches.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return super.chooseMove(requested, difficulty, clientDeadlineMs, maxDepth);
+		}
+	};
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void badItemGetsItsOwnError() {
+		release.countDown();
+		BoardRequest grid = new BoardRequest(Collections.nCopies(16, null), "O", "hard", List.of(), List.of());
+		grid.setBoardSize(4);
+		grid.setWinLength(3);
+		grid.setVanishLength(2); // Shorter than a line
+		List<BoardResponse> responses = batch(64).makeAiMoves(List.of(request("medium", List.of(4), List.of(0)), grid,
+		                                                             request("hard", List.of(4), List.of(0, 8))));
+
+		assertEquals(3, responses.size());
+		assertTrue(responses.get(0).isMoveMade());
+		assertNull(responses.get(0).getError());
+		assertFalse(responses.get(1).isMoveMade());
+		assertTrue(responses.get(1).getError().contains("Vanish length"), responses.get(1).getError());
+		assertTrue(responses.get(2).isMoveMade());
+	}
+
+	@Test
+	void itemTurnedAwayByAFullPoolGetsItsOwnError() throws Exception {
+		pool = new AiComputePool(registry, 1, 1, "reject", 2, 5);
+		AiBatchService batch = batch(64);
+		CompletableFuture<List<BoardResponse>> responses = CompletableFuture.supplyAsync(() -> batch.makeAiMoves(List.of(
+			request("medium", List.of(4), List.of(0)),
+			request("medium", List.of(4), List.of(1)),
+			request("medium", List.of(0), List.of(4)))));
+		// Three positions that are not symmetric copies: one searching, one queued, one rejected
+		awaitCount("ai.pool.rejections", "outcome", "rejected", 1);
+		release.countDown();
+
+		List<BoardResponse> result = responses.get(10, TimeUnit.SECONDS);
+		assertTrue(result.get(0).isMoveMade());
+		assertTrue(result.get(1).isMoveMade());
+		assertFalse(result.get(2).isMoveMade());
+		assertTrue(result.get(2).getError().contains("busy"), result.get(2).getError());
+	}
+
+	@Test
+	void batchSizeIsCapped() {
+		release.countDown();
+		AiBatchService batch = batch(2);
+		BoardRequest request = request("medium", List.of(4), List.of(0));
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+		                                           () -> batch.makeAiMoves(List.of(request, request, request)));
+		assertEquals("At most 2 positions per batch", e.getMessage());
+		assertEquals(0, searches.get());
+		assertEquals(2, batch.makeAiMoves(List.of(request, request)).size());
+	}
+
+	@Test
+	void duplicatePositionsInABatchShareOneSearch() throws Exception {
+		AiBatchService batch = batch(64);
+		BoardRequest request = request("hard", List.of(4), List.of(0, 5));
+		BoardRequest rotated = request("hard", List.of(Symmetry.cell(1, 4)),
+		                               List.of(Symmetry.cell(1, 0), Symmetry.cell(1, 5)));
+		BoardRequest other = request("hard", List.of(4), List.of(0, 8));
+		CompletableFuture<List<BoardResponse>> responses = CompletableFuture.supplyAsync(
+			() -> batch.makeAiMoves(List.of(request, other, request, rotated)));
+		// Both later copies have joined the first search before any search finishes
+		awaitCount("ai.coalesce.joined", null, null, 2);
+		release.countDown();
+
+		List<BoardResponse> result = responses.get(10, TimeUnit.SECONDS);
+		assertEquals(2, searches.get());
+		int move = result.get(0).getMoveIndex();
+		assertEquals(move, result.get(2).getMoveIndex());
+		assertEquals(Symmetry.cell(1, move), result.get(3).getMoveIndex());
+		assertTrue(result.get(1).isMoveMade());
+	}
+
+	private AiBatchService batch(int maxBatchSize) {
+		if (pool == null) {
+			pool = new AiComputePool(registry, 4, 16, "reject", 2, 1);
+		}
+		return new AiBatchService(new AiMoveCoalescer(aiService, pool, registry, true), maxBatchSize);
+	}
+
+	private void awaitCount(String meter, String tag, String value, double count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < deadline) {
+			var search = registry.get(meter);
+			if (tag != null) {
+				search = search.tag(tag, value);
+			}
+			if (search.counter().count() >= count) {
+				return;
+			}
+			Thread.sleep(1);
+		}
+		throw new AssertionError(meter + " never reached " + count);
+	}
+
+	/**
+	 * The AI plays O and is to move; moves are oldest first
+	 */
+	private static BoardRequest request(String difficulty, List<Integer> aiMoves, List<Integer> playerMoves) {
+		List<String> board = Arrays.asList(new String[Position.BOARD_SIZE]);
+		aiMoves.forEach(cell -> board.set(cell, "O"));
+		playerMoves.forEach(cell -> board.set(cell, "X"));
+		return new BoardRequest(board, "O", difficulty, new ArrayList<>(playerMoves), new ArrayList<>(aiMoves));
+	}
+}
@@ -0,0 +1,90 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AiComputePoolTests {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private AiComputePool pool;
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		pool.shutdown();
+	}
+
+	@Test
+	void freePoolSearchesWithoutDepthCap() {
+		pool = new AiComputePool(registry, 1, 1, "reject", 2, 3);
+		assertEquals(AiService.NO_DEPTH_CAP, (int) pool.call(maxDepth -> maxDepth));
+		assertEquals(0.0, rejections("rejected"));
+	}
+
+	@Test
+	void rejectPolicyFailsWithBusy() throws InterruptedException {
+		pool = new AiComputePool(registry, 1, 1, "reject", 2, 3);
+		fill();
+		assertEquals(1.0, registry.get("ai.pool.active").gauge().value());
+		assertEquals(1.0, registry.get("ai.pool.queue.depth").gauge().value());
+
+		CompletionException failed = assertThrows(CompletionException.class, pool.submit(maxDepth -> maxDepth)::join);
+		assertTrue(failed.getCause() instanceof AiBusyException, String.valueOf(failed.getCause()));
+		AiBusyException busy = assertThrows(AiBusyException.class, () -> pool.call(maxDepth -> maxDepth));
+		assertEquals(3, busy.getRetryAfterSeconds());
+		assertEquals(2.0, rejections("rejected"));
+		assertEquals(0.0, rejections("shallow"));
+	}
+
+	@Test
+	void shallowPolicyRunsOnTheCallerAtTheFallbackDepth() throws InterruptedException {
+		pool = new AiComputePool(registry, 1, 1, "shallow", 3, 1);
+		fill();
+
+		Thread caller = Thread.currentThread();
+		CompletableFuture<Thread> ranOn = pool.submit(maxDepth -> Thread.currentThread());
+		assertTrue(ranOn.isDone());
+		assertSame(caller, ranOn.join());
+
+		AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(),
+		                                    60_000, 60_000);
+		AiService.MoveResult result = pool.call(maxDepth -> aiService.chooseMove(new Position(0, 0, null, null, AiService.AI),
+		                                                                          "hard", null, maxDepth));
+		assertEquals(3, result.depth);
+		assertEquals(2.0, rejections("shallow"));
+		assertEquals(0.0, rejections("rejected"));
+	}
+
+	// One task running on the only thread and one waiting in the only queue slot
+	private void fill() throws InterruptedException {
+		for (int i = 0; i < 2; i++) {
+			pool.submit(maxDepth -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			});
+		}
+		started.await();
+	}
+
+	private double rejections(String outcome) {
+		return registry.get("ai.pool.rejections").tag("outcome", outcome).counter().count();
+	}
+}
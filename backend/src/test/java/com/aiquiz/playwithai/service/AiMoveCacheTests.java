@@ -0,0 +1,124 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.aiquiz.playwithai.model.BoardResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AiMoveCacheTests {
+
+	// Medium and hard, AI as O at the centre, human X in the corner
+	private static final String MEDIUM = token(AiMoveToken.ENGINE_VERSION << 4 | 0x02);
+	private static final String HARD = token(AiMoveToken.ENGINE_VERSION << 4 | 0x03);
+
+	private final AtomicInteger searches = new AtomicInteger();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AiComputePool pool = new AiComputePool(registry, 2, 16, "reject", 2, 1);
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdown();
+	}
+
+	@Test
+	void completeSearchIsStoredAndServedAgain() {
+		AiMoveCache cache = cache(Tablebase.disabled(), 60_000);
+
+		AiMoveCache.Lookup first = cache.move(MEDIUM);
+		AiMoveCache.Lookup second = cache.move(MEDIUM);
+
+		assertTrue(first.cacheable());
+		assertTrue(second.cacheable());
+		assertEquals(first.response().getMoveIndex(), second.response().getMoveIndex());
+		assertEquals(1, searches.get());
+	}
+
+	@Test
+	void searchCutShortIsNeitherCacheableNorStored() {
+		AiMoveCache cache = cache(Tablebase.disabled(), 0);
+
+		AiMoveCache.Lookup lookup = cache.move(MEDIUM);
+		assertFalse(lookup.response().isComplete());
+		assertFalse(lookup.cacheable());
+		cache.move(MEDIUM);
+		assertEquals(2, searches.get());
+	}
+
+	@Test
+	void tokenForAnotherEngineVersionIsNotCacheable() {
+		AiMoveCache cache = cache(Tablebase.disabled(), 60_000);
+		String old = token(0x02);
+
+		assertTrue(cache.move(old).response().isMoveMade());
+		assertFalse(cache.move(old).cacheable());
+		assertEquals(2, searches.get());
+	}
+
+	@Test
+	void hardMovesNeedTheTablebase() throws IOException {
+		assertFalse(cache(Tablebase.disabled(), 60_000).move(HARD).cacheable());
+
+		Path file = Files.createTempFile("endless-ttt", ".tb");
+		try {
+			Tablebase.write(file, TablebaseGenerator.solve());
+			assertTrue(cache(Tablebase.load(file), 60_000).move(HARD).cacheable());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void eTagChangesWithTheMove() {
+		BoardResponse response = cache(Tablebase.disabled(), 60_000).move(MEDIUM).response();
+		String eTag = AiMoveCache.eTag(MEDIUM, response);
+		assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""), eTag);
+
+		response.setMoveIndex(response.getMoveIndex() == 8 ? 6 : 8);
+		assertNotEquals(eTag, AiMoveCache.eTag(MEDIUM, response));
+	}
+
+	// Whether an answer may be cached is the server's business; clients only see the move
+	@Test
+	void completeFlagIsNotSerialized() throws IOException {
+		BoardResponse response = cache(Tablebase.disabled(), 60_000).move(MEDIUM).response();
+		assertTrue(response.isComplete());
+
+		ObjectMapper mapper = new ObjectMapper();
+		JsonNode json = mapper.readTree(mapper.writeValueAsString(response));
+		assertFalse(json.has("complete"), json.toString());
+		assertEquals(response.getMoveIndex(), json.get("moveIndex").asInt());
+		assertFalse(mapper.readValue("{\"moveIndex\":4,\"complete\":true}", BoardResponse.class).isComplete());
+	}
+
+	private AiMoveCache cache(Tablebase tablebase, long budgetMs) {
+		AiService aiService = new AiService(tablebase, TranspositionTable.disabled(), AiMetrics.standalone(),
+		                                    budgetMs, budgetMs) {
+			@Override
+			MoveResult chooseMove(Position requested, String difficulty, Long clientDeadlineMs, int maxDepth) {
+				searches.incrementAndGet();
+				return super.chooseMove(requested, difficulty, clientDeadlineMs, maxDepth);
+			}
+		};
+		return new AiMoveCache(new AiMoveCoalescer(aiService, pool, registry, true), tablebase, registry, 100);
+	}
+
+	private static String token(int flags) {
+		byte[] raw = { (byte) flags, 1, 4, 1, 0 };
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+	}
+}
@@ -0,0 +1,168 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+import com.aiquiz.playwithai.model.BoardResponse;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AiMoveCoalescerTests {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicInteger searches = new AtomicInteger();
+	private final AtomicBoolean failing = new AtomicBoolean();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AiComputePool pool = new AiComputePool(registry, 4, 16, "reject", 2, 1);
+
+	// Counts searches and holds each one until the test releases it, so requests overlap
+	private final AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(),
+	                                                  AiMetrics.standalone(), 60_000, 60_000) {
+		@Override
+		MoveResult chooseMove(Position requested, String difficulty, Long clientDeadlineMs, int maxDepth) {
+			searches.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (failing.get()) {
+				throw new IllegalStateException("search failed");
+			}
+			return super.chooseMove(requested, difficulty, clientDeadlineMs, maxDepth);
+		}
+	};
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		pool.shutdown();
+	}
+
+	@Test
+	void symmetricRequestsShareOneSearch() {
+		AiMoveCoalescer coalescer = new AiMoveCoalescer(aiService, pool, registry, true);
+		BoardRequest request = request("medium", List.of(4), List.of(0, 5));
+		CompletableFuture<BoardResponse> first = coalescer.submit(request);
+		CompletableFuture<BoardResponse> same = coalescer.submit(request("medium", List.of(4), List.of(0, 5)));
+		CompletableFuture<BoardResponse> rotated = coalescer.submit(transformed(request, 1));
+		release.countDown();
+
+		int move = first.join().getMoveIndex();
+		assertEquals(1, searches.get());
+		assertEquals(move, same.join().getMoveIndex());
+		assertEquals(Symmetry.cell(1, move), rotated.join().getMoveIndex());
+	}
+
+	@Test
+	void sharedMoveMatchesDirectSearch() {
+		AiMoveCoalescer coalescer = new AiMoveCoalescer(aiService, pool, registry, true);
+		release.countDown();
+		for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+			BoardRequest request = transformed(request("hard", List.of(4, 2), List.of(0, 5)), symmetry);
+			assertEquals(aiService.makeAiMove(request).getMoveIndex(), coalescer.call(request).getMoveIndex(),
+			             "symmetry " + symmetry);
+		}
+	}
+
+	@Test
+	void differentDifficultiesSearchSeparately() {
+		AiMoveCoalescer coalescer = new AiMoveCoalescer(aiService, pool, registry, true);
+		CompletableFuture<BoardResponse> medium = coalescer.submit(request("medium", List.of(4), List.of(0)));
+		CompletableFuture<BoardResponse> hard = coalescer.submit(request("hard", List.of(4), List.of(0)));
+		release.countDown();
+		medium.join();
+		hard.join();
+		assertEquals(2, searches.get());
+	}
+
+	@Test
+	void finishedSearchIsNotReused() {
+		AiMoveCoalescer coalescer = new AiMoveCoalescer(aiService, pool, registry, true);
+		release.countDown();
+		coalescer.call(request("medium", List.of(4), List.of(0)));
+		coalescer.call(request("medium", List.of(4), List.of(0)));
+		assertEquals(2, searches.get());
+	}
+
+	@Test
+	void disabledCoalescerSearchesEveryRequest() {
+		AiMoveCoalescer coalescer = new AiMoveCoalescer(aiService, pool, registry, false);
+		CompletableFuture<BoardResponse> first = coalescer.submit(request("medium", List.of(4), List.of(0)));
+		CompletableFuture<BoardResponse> second = coalescer.submit(request("medium", List.of(4), List.of(0)));
+		release.countDown();
+		first.join();
+		second.join();
+		assertEquals(2, searches.get());
+	}
+
+	@Test
+	void failureReachesEveryJoinerAndIsNotKept() {
+		AiMoveCoalescer coalescer = new AiMoveCoalescer(aiService, pool, registry, true);
+		failing.set(true);
+		CompletableFuture<BoardResponse> first = coalescer.submit(request("medium", List.of(4), List.of(0)));
+		CompletableFuture<BoardResponse> second = coalescer.submit(request("medium", List.of(4), List.of(0)));
+		release.countDown();
+		for (CompletableFuture<BoardResponse> future : List.of(first, second)) {
+			CompletionException e = assertThrows(CompletionException.class, future::join);
+			assertTrue(e.getCause() instanceof IllegalStateException, String.valueOf(e.getCause()));
+		}
+		assertEquals(1, searches.get());
+
+		failing.set(false);
+		assertTrue(coalescer.call(request("medium", List.of(4), List.of(0))).isMoveMade());
+		assertEquals(2, searches.get());
+	}
+
+	@Test
+	void latencyIsTimedPerCallerIncludingTheWait() throws InterruptedException {
+		AiMoveCoalescer coalescer = new AiMoveCoalescer(aiService, pool, registry, true);
+		CompletableFuture<BoardResponse> first = coalescer.submit(request("hard", List.of(4), List.of(0)));
+		CompletableFuture<BoardResponse> joined = coalescer.submit(request("hard", List.of(4), List.of(0)));
+		Thread.sleep(50);
+		release.countDown();
+		first.join();
+		joined.join();
+
+		Timer latency = registry.get("ai.move.latency").tag("difficulty", "hard").timer();
+		assertEquals(2, latency.count());
+		assertTrue(latency.totalTime(TimeUnit.MILLISECONDS) >= 100, latency.totalTime(TimeUnit.MILLISECONDS) + " ms");
+		assertEquals(0, registry.get("ai.move.latency").tag("difficulty", "medium").timer().count());
+	}
+
+	/**
+	 * The AI plays O and is to move; moves are oldest first
+	 */
+	private static BoardRequest request(String difficulty, List<Integer> aiMoves, List<Integer> playerMoves) {
+		List<String> board = Arrays.asList(new String[Position.BOARD_SIZE]);
+		aiMoves.forEach(cell -> board.set(cell, "O"));
+		playerMoves.forEach(cell -> board.set(cell, "X"));
+		return new BoardRequest(board, "O", difficulty, playerMoves, aiMoves);
+	}
+
+	private static BoardRequest transformed(BoardRequest request, int symmetry) {
+		return request(request.getDifficulty(), map(request.getAiMoves(), symmetry), map(request.getPlayerMoves(), symmetry));
+	}
+
+	private static List<Integer> map(List<Integer> cells, int symmetry) {
+		List<Integer> mapped = new ArrayList<>();
+		cells.forEach(cell -> mapped.add(Symmetry.cell(symmetry, cell)));
+		return mapped;
+	}
+}
@@ -0,0 +1,83 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aiquiz.playwithai.model.BoardRequest;
+
+class AiMoveTokenTests {
+
+	@Test
+	void decodesTokenWrittenByTheFrontend() {
+		// aiMoveToken.js for hard, AI as O at the centre, human X in the corner
+		AiMoveToken.Decoded decoded = AiMoveToken.decode("EwEEAQA");
+		BoardRequest request = decoded.request();
+
+		assertTrue(decoded.currentEngine());
+		assertEquals("hard", request.getDifficulty());
+		assertEquals("O", request.getCurrentPlayer());
+		assertEquals(List.of(4), request.getAiMoves());
+		assertEquals(List.of(0), request.getPlayerMoves());
+		assertEquals("X", request.getBoard().get(0));
+		assertEquals("O", request.getBoard().get(4));
+		assertNull(request.getBoardSize());
+	}
+
+	@Test
+	void versionComesFromTheHighNibble() {
+		assertEquals(0, AiMoveToken.decode(token(0x00, 0, 0)).engineVersion());
+		assertFalse(AiMoveToken.decode(token(0x00, 0, 0)).currentEngine());
+		assertEquals(AiMoveToken.ENGINE_VERSION,
+		             AiMoveToken.decode(token(AiMoveToken.ENGINE_VERSION << 4, 0, 0)).engineVersion());
+		assertEquals(15, AiMoveToken.decode(token(0xF1, 0, 0)).engineVersion());
+		assertEquals("hard", AiMoveToken.decode(token(0xF1, 0, 0)).request().getDifficulty());
+	}
+
+	@Test
+	void decodesCustomBoardDimensions() {
+		// 10x10, five in a row, marks never vanish; AI X at 55, human O at 0 then 99
+		BoardRequest request = AiMoveToken.decode(token(0x14, 10, 5, 0, 1, 55, 2, 0, 99)).request();
+
+		assertEquals(10, (int) request.getBoardSize());
+		assertEquals(5, (int) request.getWinLength());
+		assertEquals(0, (int) request.getVanishLength());
+		assertEquals(100, request.getBoard().size());
+		assertEquals("X", request.getCurrentPlayer());
+		assertEquals("medium", request.getDifficulty());
+		assertEquals(List.of(0, 99), request.getPlayerMoves());
+	}
+
+	@Test
+	void rejectsMalformedTokens() {
+		List<String> tokens = List.of(
+			"",
+			"not base64!",
+			token(0x08, 0, 0),             // unknown flag
+			token(0x10, 1, 4),             // queue shorter than its count
+			token(0x10, 1, 9, 0),          // cell off the board
+			token(0x10, 1, 4, 1, 4),       // both marks on one cell
+			token(0x10, 4, 0, 1, 2, 3, 0), // more marks than stay on a 3x3 board
+			token(0x10, 0, 0, 7),          // trailing byte
+			token(0x14, 2, 3, 0, 0, 0)     // board too small
+		);
+		for (String token : tokens) {
+			assertThrows(IllegalArgumentException.class, () -> AiMoveToken.decode(token), token);
+		}
+	}
+
+	private static String token(int... bytes) {
+		byte[] raw = new byte[bytes.length];
+		for (int i = 0; i < bytes.length; i++) {
+			raw[i] = (byte) bytes[i];
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+	}
+}
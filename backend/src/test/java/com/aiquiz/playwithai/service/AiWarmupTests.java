@@ -0,0 +1,44 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AiWarmupTests {
+
+	@Test
+	void warmupSearchesStayOutOfTheMoveMetrics() {
+		AtomicInteger recorded = new AtomicInteger();
+		AiMetrics metrics = new AiMetrics(new SimpleMeterRegistry(), TranspositionTable.disabled()) {
+			@Override
+			void recordMove(String difficulty, MoveSource source, long elapsedNanos,
+			                long searchNodes, long searchCutoffs, int searchDepth) {
+				recorded.incrementAndGet();
+			}
+		};
+		AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), metrics, 5, 5);
+
+		AiWarmup warmup = new AiWarmup(aiService, 10);
+		warmup.start();
+		assertTrue(warmup.awaitReady(60_000));
+		assertEquals(30, warmup.getSearched());
+		assertEquals(0, recorded.get());
+
+		aiService.chooseMove(new Position(0, 0, null, null, AiService.AI), "medium", null);
+		assertEquals(1, recorded.get());
+	}
+
+	@Test
+	void positionsHaveTheAiToMove() {
+		for (Position position : AiWarmup.positions(200, new Random(1))) {
+			assertEquals(AiService.AI, position.sideToMove());
+			assertEquals(Position.NONE, position.winner());
+		}
+	}
+}
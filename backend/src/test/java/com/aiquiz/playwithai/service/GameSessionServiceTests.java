@@ -0,0 +1,170 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.aiquiz.playwithai.model.SessionResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GameSessionServiceTests {
+
+	private final AiComputePool pool = new AiComputePool(new SimpleMeterRegistry(), 2, 16, "reject", 2, 1);
+	private final AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(),
+	                                                  AiMetrics.standalone(), 60_000, 60_000);
+
+	// Sessions written through to a map, as a persistence bean would store them
+	private final Map<String, GameSession> stored = new ConcurrentHashMap<>();
+	private final GameSessionPersistence persistence = new GameSessionPersistence() {
+		@Override
+		public void save(GameSession session) {
+			stored.put(session.getId(), session);
+		}
+
+		@Override
+		public Optional<GameSession> load(String id) {
+			return Optional.ofNullable(stored.get(id));
+		}
+
+		@Override
+		public void delete(String id) {
+			stored.remove(id);
+		}
+	};
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdown();
+	}
+
+	@Test
+	void humanMoveGetsTheAiReply() {
+		GameSessionService sessions = sessions(null, 10, 30);
+		SessionResponse started = sessions.start("medium", "O", false);
+		assertEquals(-1, started.getAiMove());
+
+		SessionResponse reply = sessions.play(started.getGameId(), 4);
+		assertTrue(reply.getAiMove() >= 0 && reply.getAiMove() != 4, "AI move " + reply.getAiMove());
+		assertFalse(reply.isGameOver());
+		assertEquals(1, sessions.activeSessions());
+	}
+
+	@Test
+	void unknownOrEndedGameIsNotFound() {
+		GameSessionService sessions = sessions(null, 10, 30);
+		assertThrows(NoSuchElementException.class, () -> sessions.play("no-such-game", 4));
+
+		String id = sessions.start("medium", "O", false).getGameId();
+		sessions.end(id);
+		assertThrows(NoSuchElementException.class, () -> sessions.play(id, 4));
+		assertEquals(0, sessions.activeSessions());
+	}
+
+	@Test
+	void illegalMovesLeaveTheGameUntouched() {
+		GameSessionService sessions = sessions(null, 10, 30);
+		String id = sessions.start("medium", "O", false).getGameId();
+		int aiMove = sessions.play(id, 4).getAiMove();
+
+		assertThrows(IllegalArgumentException.class, () -> sessions.play(id, 4));
+		assertThrows(IllegalArgumentException.class, () -> sessions.play(id, aiMove));
+		assertThrows(IllegalArgumentException.class, () -> sessions.play(id, Position.BOARD_SIZE));
+		assertThrows(IllegalArgumentException.class, () -> sessions.play(id, -1));
+
+		int free = aiMove == 0 ? 8 : 0;
+		assertTrue(sessions.play(id, free).getAiMove() >= 0);
+	}
+
+	@Test
+	void finishedGameOrAiTurnRefusesMoves() {
+		GameSessionService sessions = sessions(persistence, 10, 30);
+		// The AI (X) has completed the top row
+		stored.put("won", GameSession.restore("won", "X", "medium",
+		                                      List.of("X", "X", "X", "O", "O", "", "", "", ""),
+		                                      List.of(3, 4), List.of(0, 1, 2), false));
+		stored.put("ai-to-move", GameSession.restore("ai-to-move", "X", "medium",
+		                                             List.of("X", "", "", "O", "", "", "", "", ""),
+		                                             List.of(3), List.of(0), true));
+
+		IllegalStateException over = assertThrows(IllegalStateException.class, () -> sessions.play("won", 5));
+		assertTrue(over.getMessage().contains("already over"), over.getMessage());
+		assertThrows(IllegalStateException.class, () -> sessions.play("ai-to-move", 5));
+	}
+
+	@Test
+	void leastRecentlyUsedGameIsEvictedAtCapacity() {
+		GameSessionService sessions = sessions(null, 2, 30);
+		String first = sessions.start("medium", "O", false).getGameId();
+		String second = sessions.start("medium", "O", false).getGameId();
+		sessions.play(first, 4); // Now the second is the least recently used
+		String third = sessions.start("medium", "O", false).getGameId();
+
+		assertEquals(2, sessions.activeSessions());
+		assertThrows(NoSuchElementException.class, () -> sessions.play(second, 4));
+		sessions.play(third, 4);
+	}
+
+	@Test
+	void idleGamesExpire() throws InterruptedException {
+		GameSessionService sessions = sessions(null, 10, 0);
+		String id = sessions.start("medium", "O", false).getGameId();
+		Thread.sleep(5);
+
+		assertThrows(NoSuchElementException.class, () -> sessions.play(id, 4));
+		assertEquals(0, sessions.activeSessions());
+	}
+
+	@Test
+	void evictedGameIsReloadedFromPersistence() {
+		GameSessionService sessions = sessions(persistence, 1, 30);
+		String first = sessions.start("medium", "O", false).getGameId();
+		sessions.start("medium", "O", false);
+
+		assertEquals(1, sessions.activeSessions());
+		assertTrue(sessions.play(first, 4).getAiMove() >= 0);
+
+		sessions.end(first);
+		assertFalse(stored.containsKey(first));
+		assertThrows(NoSuchElementException.class, () -> sessions.play(first, 0));
+	}
+
+	private GameSessionService sessions(GameSessionPersistence persistence, int maxSessions, long idleTimeoutMinutes) {
+		return new GameSessionService(aiService, pool, provider(persistence), maxSessions, idleTimeoutMinutes);
+	}
+
+	private static ObjectProvider<GameSessionPersistence> provider(GameSessionPersistence persistence) {
+		return new ObjectProvider<>() {
+			@Override
+			public GameSessionPersistence getObject() {
+				return persistence;
+			}
+
+			@Override
+			public GameSessionPersistence getObject(Object... args) {
+				return persistence;
+			}
+
+			@Override
+			public GameSessionPersistence getIfAvailable() {
+				return persistence;
+			}
+
+			@Override
+			public GameSessionPersistence getIfUnique() {
+				return persistence;
+			}
+		};
+	}
+}
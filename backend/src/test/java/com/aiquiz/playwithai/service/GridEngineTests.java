@@ -0,0 +1,96 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class GridEngineTests {
+
+	private static final int SIZE = 10;
+	private static final int WIN = 5;
+
+	@Test
+	void playsOpenFourFromOpenThreeOnALargeBoard() {
+		// AI on row 4, columns 3-5; the human's marks are in far corners
+		GridPosition position = position(List.of(cell(4, 3), cell(4, 4), cell(4, 5)),
+		                                 List.of(cell(0, 0), cell(0, 9), cell(9, 0)));
+
+		AiService.MoveResult result = search(position);
+		// Only columns 2 and 6 leave both ends of the four open
+		assertTrue(Set.of(cell(4, 2), cell(4, 6)).contains(result.moveIndex), "move " + result.moveIndex);
+		assertTrue(result.score >= AiService.WIN_SCORE, "score " + result.score);
+	}
+
+	@Test
+	void forcedFiveInARowSurvivesEveryReply() {
+		GridPosition position = position(List.of(cell(4, 3), cell(4, 4), cell(4, 5)),
+		                                 List.of(cell(0, 0), cell(0, 9), cell(9, 0)));
+		position.make(search(position).moveIndex);
+
+		for (int reply = 0; reply < SIZE * SIZE; reply++) {
+			if (!position.isEmpty(reply)) continue;
+			int vanished = position.make(reply);
+			AiService.MoveResult result = search(position);
+			assertTrue(result.score >= AiService.WIN_SCORE, "reply " + reply + " score " + result.score);
+			// The four is open at both ends, so whatever the reply the AI completes five now
+			int aiVanished = position.make(result.moveIndex);
+			assertEquals(AiService.AI, position.winner(), "after reply " + reply);
+			position.unmake(result.moveIndex, aiVanished);
+			position.unmake(reply, vanished);
+		}
+	}
+
+	@Test
+	void blocksAnOpponentsFour() {
+		// The human has four on column 7 with only the bottom end open
+		GridPosition position = position(List.of(cell(0, 7), cell(2, 2), cell(6, 6), cell(8, 1)),
+		                                 List.of(cell(1, 7), cell(2, 7), cell(3, 7), cell(4, 7)));
+		assertEquals(cell(5, 7), search(position).moveIndex);
+	}
+
+	@Test
+	void finishedGameIsNotSearched() {
+		GridPosition position = position(List.of(cell(9, 0), cell(9, 2)),
+		                                 List.of(cell(0, 0), cell(0, 1), cell(0, 2), cell(0, 3), cell(0, 4)));
+		AiService.MoveResult result = search(position);
+		assertEquals(-1, result.moveIndex);
+		assertEquals(AiService.LOSE_SCORE, result.score);
+	}
+
+	@Test
+	void evaluationStaysBelowWinScore() {
+		// Hundreds of lines holding three AI marks each would sum far past WIN_SCORE
+		GridGeometry geometry = GridGeometry.of(SIZE, 4);
+		long[] ai = new long[geometry.words];
+		for (int row = 0; row < SIZE; row++) {
+			for (int col = 0; col < SIZE; col++) {
+				if ((row + col) % 4 != 0) GridGeometry.set(ai, 0, row * SIZE + col);
+			}
+		}
+		GridPosition position = new GridPosition(geometry, 0, ai, new long[geometry.words], null, null, AiService.AI);
+		assertEquals(GridEngine.MAX_EVALUATION, GridEngine.evaluate(position));
+		assertTrue(GridEngine.MAX_EVALUATION < AiService.WIN_SCORE);
+	}
+
+	private static AiService.MoveResult search(GridPosition position) {
+		return GridEngine.search(position, 6, AiService.NO_DEPTH_CAP, Long.MAX_VALUE, new GridEngine.Search());
+	}
+
+	private static GridPosition position(List<Integer> aiCells, List<Integer> humanCells) {
+		GridGeometry geometry = GridGeometry.of(SIZE, WIN);
+		long[] ai = new long[geometry.words];
+		long[] human = new long[geometry.words];
+		aiCells.forEach(cell -> GridGeometry.set(ai, 0, cell));
+		humanCells.forEach(cell -> GridGeometry.set(human, 0, cell));
+		// Vanish length 0: marks never disappear
+		return new GridPosition(geometry, 0, ai, human, aiCells, humanCells, AiService.AI);
+	}
+
+	private static int cell(int row, int col) {
+		return row * SIZE + col;
+	}
+}
@@ -0,0 +1,56 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class IterativeDeepeningTests {
+
+	// Generous bound: the tests check that the deadline stops the search, not how precisely
+	private static final long SLACK_MS = 2_000;
+
+	@Test
+	void tinyBudgetStillAnswersWithALegalMove() {
+		AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(), 1, 1);
+		Position position = new Position(0, 0, null, null, AiService.AI);
+
+		long start = System.nanoTime();
+		AiService.MoveResult result = aiService.chooseMove(position, "hard", null);
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		assertTrue(result.moveIndex >= 0 && result.moveIndex < Position.BOARD_SIZE, "move " + result.moveIndex);
+		assertTrue(result.depth >= 1, "depth " + result.depth);
+		assertTrue(elapsedMs < SLACK_MS, elapsedMs + " ms");
+	}
+
+	@Test
+	void clientDeadlineTightensTheBudget() {
+		AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(),
+		                                    600_000, 600_000);
+		Position position = new Position(0, 0, null, null, AiService.AI);
+
+		long start = System.nanoTime();
+		AiService.MoveResult result = aiService.chooseMove(position, "hard", 1L);
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		assertTrue(result.moveIndex >= 0, "move " + result.moveIndex);
+		assertTrue(elapsedMs < SLACK_MS, elapsedMs + " ms");
+	}
+
+	@Test
+	void depthCapStopsShortOfTheDifficultyLimit() {
+		AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(),
+		                                    600_000, 600_000);
+		Position position = new Position(0, 0, null, null, AiService.AI);
+
+		AiService.MoveResult capped = aiService.chooseMove(position, "medium", null, 2);
+		assertEquals(2, capped.depth);
+		assertFalse(capped.complete);
+
+		AiService.MoveResult full = aiService.chooseMove(position, "medium", null);
+		assertTrue(full.depth > 2, "depth " + full.depth);
+		assertTrue(full.complete);
+	}
+}
@@ -0,0 +1,173 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.aiquiz.playwithai.dto.RankedEntry;
+import com.aiquiz.playwithai.model.LeaderboardEntry;
+import com.aiquiz.playwithai.repository.LeaderboardRepository;
+
+class LeaderboardIndexTests {
+
+	private static final LocalDateTime PLAYED = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+	@Test
+	void ranksByTimeThenId() {
+		LeaderboardIndex index = index(List.of(entry(1, 500), entry(2, 300), entry(3, 300), entry(4, 900)));
+		assertEquals(List.of(2L, 3L, 1L, 4L), ids(index.top(10)));
+		assertEquals(1, index.rank(2));
+		assertEquals(2, index.rank(3)); // Same time, higher id
+		assertEquals(4, index.rank(4));
+		assertEquals(-1, index.rank(99));
+
+		// A tie inserted later still sorts by id
+		index.update(entry(0, 300));
+		assertEquals(List.of(0L, 2L, 3L, 1L, 4L), ids(index.top(10)));
+		assertEquals(5, index.size());
+	}
+
+	@Test
+	void movesKeepRanksConsistent() {
+		LeaderboardIndex index = index(List.of(entry(1, 100), entry(2, 200), entry(3, 300), entry(4, 400)));
+		index.update(entry(4, 150)); // Improvement
+		assertEquals(List.of(1L, 4L, 2L, 3L), ids(index.top(10)));
+
+		index.update(entry(1, 1_000)); // Removed from the front, inserted at the back
+		assertEquals(List.of(4L, 2L, 3L, 1L), ids(index.top(10)));
+		assertEquals(4, index.rank(1));
+		assertEquals(4, index.size());
+
+		index.update(entry(2, 200)); // Unchanged
+		assertEquals(List.of(4L, 2L, 3L, 1L), ids(index.top(10)));
+	}
+
+	@Test
+	void windowAndAroundClipAtTheEnds() {
+		List<LeaderboardEntry> entries = new ArrayList<>();
+		for (long id = 1; id <= 10; id++) {
+			entries.add(entry(id, id * 10));
+		}
+		LeaderboardIndex index = index(entries);
+
+		assertEquals(List.of(4L, 5L, 6L), ids(index.window(4, 3)));
+		assertEquals(List.of(4L, 5L, 6L), ranks(index.window(4, 3)));
+		assertEquals(List.of(9L, 10L), ids(index.window(9, 5)));
+		assertEquals(List.of(1L, 2L), ids(index.window(0, 2)));
+		assertTrue(index.window(11, 5).isEmpty());
+
+		assertEquals(List.of(3L, 4L, 5L, 6L, 7L), ids(index.around(5, 2)));
+		assertEquals(List.of(1L, 2L, 3L), ids(index.around(1, 2)));
+		assertEquals(List.of(8L, 9L, 10L), ids(index.around(10, 2)));
+		assertTrue(index.around(99, 2).isEmpty());
+	}
+
+	// Thousands of players give the skip list several levels; rank() sums widths on every level
+	// and window() walks them by rank, so both must match a plain sorted list after every change
+	@Test
+	void widthsStayConsistentAcrossLevels() {
+		Random random = new Random(42);
+		List<LeaderboardEntry> expected = new ArrayList<>();
+		for (long id = 1; id <= 2_000; id++) {
+			expected.add(entry(id, random.nextInt(500)));
+		}
+		LeaderboardIndex index = index(expected);
+		assertMatches(expected, index);
+
+		for (int i = 0; i < 2_000; i++) {
+			long id = 1 + random.nextInt(2_100); // Some new players, mostly moves
+			LeaderboardEntry entry = entry(id, random.nextInt(500));
+			expected.removeIf(e -> e.getId() == id);
+			expected.add(entry);
+			index.update(entry);
+			if (i % 250 == 0) {
+				assertMatches(expected, index);
+			}
+		}
+		assertMatches(expected, index);
+	}
+
+	@Test
+	void topVersionMovesOnlyForTheTopRanks() {
+		List<LeaderboardEntry> entries = new ArrayList<>();
+		for (long id = 1; id <= 300; id++) {
+			entries.add(entry(id, id * 10));
+		}
+		LeaderboardIndex index = index(entries);
+		long version = index.topVersion();
+
+		index.update(entry(250, 2_000)); // Rank 250 to 200
+		index.update(entry(301, 5_000)); // New player at rank 301
+		index.update(entry(150, 150 * 10)); // Unchanged
+		assertEquals(version, index.topVersion());
+
+		index.update(entry(200, 995)); // Into rank 100
+		assertNotEquals(version, version = index.topVersion());
+
+		index.update(entry(50, 4_000)); // Out of the top
+		assertNotEquals(version, version = index.topVersion());
+
+		index.update(entry(302, 5)); // New leader
+		assertNotEquals(version, version = index.topVersion());
+
+		index.update(entry(10, 101)); // Same rank, new time shown in the top
+		assertNotEquals(version, version = index.topVersion());
+
+		LeaderboardIndex.Top top = index.topWithVersion(500);
+		assertEquals(version, top.version());
+		assertEquals(LeaderboardIndex.TOP_TRACKED, top.entries().size());
+	}
+
+	private static void assertMatches(List<LeaderboardEntry> expected, LeaderboardIndex index) {
+		List<LeaderboardEntry> sorted = new ArrayList<>(expected);
+		sorted.sort(Comparator.comparingLong(LeaderboardEntry::getTimeTakenMs).thenComparing(LeaderboardEntry::getId));
+		assertEquals(sorted.size(), index.size());
+		List<Long> sortedIds = sorted.stream().map(LeaderboardEntry::getId).toList();
+		assertEquals(sortedIds, ids(index.window(1, sorted.size())));
+		for (int rank = 1; rank <= sorted.size(); rank++) {
+			long id = sortedIds.get(rank - 1);
+			assertEquals(rank, index.rank(id), "rank of " + id);
+			assertEquals(List.of(id), ids(index.window(rank, 1)), "window at " + rank);
+		}
+	}
+
+	private static List<Long> ids(List<RankedEntry> entries) {
+		return entries.stream().map(RankedEntry::getId).toList();
+	}
+
+	private static List<Long> ranks(List<RankedEntry> entries) {
+		return entries.stream().map(RankedEntry::getRank).toList();
+	}
+
+	private static LeaderboardEntry entry(long id, long timeTakenMs) {
+		LeaderboardEntry entry = new LeaderboardEntry("player " + id, null, null, timeTakenMs);
+		entry.setId(id);
+		entry.setDatePlayed(PLAYED);
+		return entry;
+	}
+
+	// An index loaded from the given rows, with nothing left to migrate
+	private static LeaderboardIndex index(List<LeaderboardEntry> rows) {
+		List<LeaderboardEntry> copy = List.copyOf(rows);
+		LeaderboardRepository repository = (LeaderboardRepository) Proxy.newProxyInstance(
+			LeaderboardRepository.class.getClassLoader(), new Class<?>[] { LeaderboardRepository.class },
+			(proxy, method, args) -> {
+				if (method.getName().equals("findAll") && args == null) return copy;
+				throw new UnsupportedOperationException(method.getName());
+			});
+		DatabaseStartup startup = new DatabaseStartup();
+		startup.start();
+		LeaderboardIndex index = new LeaderboardIndex(repository, startup);
+		index.awaitLoaded();
+		return index;
+	}
+}
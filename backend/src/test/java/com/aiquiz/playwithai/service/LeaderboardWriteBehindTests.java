@@ -0,0 +1,259 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.aiquiz.playwithai.dto.LeaderboardResponse;
+import com.aiquiz.playwithai.model.LeaderboardEntry;
+import com.aiquiz.playwithai.repository.LeaderboardRepository;
+
+class LeaderboardWriteBehindTests {
+
+	private final FakeDatabase database = new FakeDatabase();
+	private final LeaderboardIndex index = new LeaderboardIndex(database.repository(), migrated());
+
+	@Test
+	void submissionsAreCoalescedPerPlayer() {
+		LeaderboardWriteBehind writeBehind = writeBehind(200, 10_000);
+		assertTrue(writeBehind.submit(entry("Ann", "555", "ann@x", 5_000)).isNewEntry());
+		writeBehind.submit(entry("Annie", "555", "ann@x", 4_000));
+		LeaderboardResponse slower = writeBehind.submit(entry("Anna", "555", "ann@x", 6_000));
+		writeBehind.submit(entry("Bob", null, "bob@x", 7_000));
+
+		assertFalse(slower.isNewEntry());
+		assertFalse(slower.isTimeUpdated());
+		assertEquals(4_000, slower.getEntry().getTimeTakenMs());
+
+		writeBehind.flush();
+		assertEquals(1, database.batches);
+		assertEquals(2, database.rows.size());
+		LeaderboardEntry ann = database.row("555", "ann@x");
+		assertEquals("Anna", ann.getName()); // Latest name, best time
+		assertEquals(4_000, ann.getTimeTakenMs());
+		assertEquals(7_000, database.row(null, "bob@x").getTimeTakenMs());
+	}
+
+	@Test
+	void failedBatchIsRequeued() {
+		LeaderboardWriteBehind writeBehind = writeBehind(200, 10_000);
+		writeBehind.submit(entry("Ann", "555", "ann@x", 5_000));
+		database.down = true;
+		assertThrows(DataAccessResourceFailureException.class, writeBehind::flush);
+
+		writeBehind.submit(entry("Ann", "555", "ann@x", 6_000)); // Merged with the failed batch
+		database.down = false;
+		writeBehind.flush();
+		assertEquals(1, database.rows.size());
+		assertEquals(5_000, database.row("555", "ann@x").getTimeTakenMs());
+
+		writeBehind.flush(); // Nothing left
+		assertEquals(1, database.batches);
+	}
+
+	@Test
+	void fullQueueTurnsNewPlayersAwayWithoutWriting() {
+		LeaderboardWriteBehind writeBehind = writeBehind(1, 1);
+		writeBehind.submit(entry("Ann", "555", "ann@x", 5_000));
+
+		LeaderboardBusyException e = assertThrows(LeaderboardBusyException.class,
+		                                          () -> writeBehind.submit(entry("Bob", "556", "bob@x", 7_000)));
+		assertEquals(60, e.getRetryAfterSeconds()); // One flush interval
+		assertEquals(0, database.batches);
+
+		// A player already queued only replaces their own entry
+		assertEquals(4_000, writeBehind.submit(entry("Ann", "555", "ann@x", 4_000)).getEntry().getTimeTakenMs());
+		writeBehind.flush();
+		writeBehind.submit(entry("Bob", "556", "bob@x", 7_000));
+	}
+
+	@Test
+	void shutdownDrainsTheQueue() {
+		LeaderboardWriteBehind writeBehind = writeBehind(200, 10_000);
+		writeBehind.start();
+		writeBehind.submit(entry("Ann", "555", "ann@x", 5_000));
+		writeBehind.submit(entry("Bob", null, null, 7_000));
+		assertEquals(0, database.batches);
+
+		writeBehind.drain();
+		assertEquals(2, database.rows.size());
+		assertEquals(7_000, database.row(null, null).getTimeTakenMs());
+	}
+
+	@Test
+	void flushRefreshesIndexFromTheWrittenRowsOnly() {
+		database.insert(entry("Ann", null, "ann@x", 9_000));
+		database.insert(entry("Nobody", null, null, 8_000));
+		LeaderboardWriteBehind writeBehind = writeBehind(200, 10_000);
+
+		LeaderboardResponse ann = writeBehind.submit(entry("Ann", null, "ann@x", 3_000));
+		assertEquals(database.row(null, "ann@x").getId(), ann.getEntry().getId());
+		assertNull(writeBehind.submit(entry("Cy", "557", null, 4_000)).getEntry().getId()); // No row yet
+
+		writeBehind.flush();
+		assertEquals(2, database.rowsRead); // Only the two players of the batch are read back
+		assertEquals(3, index.size());
+		assertEquals(1, index.rank(database.row(null, "ann@x").getId()));
+		Long cy = database.row("557", null).getId();
+		assertEquals(2, index.rank(cy));
+		assertEquals(3, index.rank(database.row(null, null).getId()));
+
+		// Once written, a returning player's response carries the row id
+		LeaderboardResponse again = writeBehind.submit(entry("Cy", "557", null, 5_000));
+		assertNotNull(again.getEntry().getId());
+		assertEquals(cy, again.getEntry().getId());
+	}
+
+	private LeaderboardWriteBehind writeBehind(int batchSize, int queueCapacity) {
+		return new LeaderboardWriteBehind(database.repository(), database, index, true, batchSize, queueCapacity, 60_000);
+	}
+
+	private static LeaderboardEntry entry(String name, String phoneNumber, String email, long timeTakenMs) {
+		return new LeaderboardEntry(name, phoneNumber, email, timeTakenMs);
+	}
+
+	private static DatabaseStartup migrated() {
+		DatabaseStartup startup = new DatabaseStartup();
+		startup.start(); // No Flyway, so this only completes the migration
+		return startup;
+	}
+
+	/**
+	 * The leaderboard table in memory, behind the batch upsert and the read-back query.
+	 * Rows are keyed by (phone number, email) with a missing value matching a missing one.
+	 */
+	private static final class FakeDatabase extends JdbcTemplate {
+
+		final Map<List<String>, LeaderboardEntry> rows = new LinkedHashMap<>();
+		volatile boolean down;
+		int batches;
+		int rowsRead;
+		private long nextId = 1;
+
+		LeaderboardEntry row(String phoneNumber, String email) {
+			return rows.get(Arrays.asList(phoneNumber, email));
+		}
+
+		void insert(LeaderboardEntry entry) {
+			entry.setId(nextId++);
+			rows.put(Arrays.asList(entry.getPhoneNumber(), entry.getEmail()), entry);
+		}
+
+		@Override
+		public synchronized <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+		                                            ParameterizedPreparedStatementSetter<T> setter) {
+			if (down) throw new DataAccessResourceFailureException("database down");
+			batches++;
+			for (T arg : batchArgs) {
+				Map<Integer, Object> values = new HashMap<>();
+				try {
+					setter.setValues(statement(values), arg);
+				} catch (SQLException e) {
+					throw new IllegalStateException(e);
+				}
+				LeaderboardEntry submitted = new LeaderboardEntry((String) values.get(1), (String) values.get(2),
+				                                                  (String) values.get(3), (Long) values.get(4));
+				LeaderboardEntry existing = row(submitted.getPhoneNumber(), submitted.getEmail());
+				if (existing == null) {
+					insert(submitted);
+				} else {
+					existing.setName(submitted.getName());
+					existing.setTimeTakenMs(Math.min(existing.getTimeTakenMs(), submitted.getTimeTakenMs()));
+				}
+			}
+			return new int[0][];
+		}
+
+		// Answers the read-back query for exactly the (phone number, email) pairs bound to it
+		@Override
+		public synchronized void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+			Map<Integer, Object> values = new HashMap<>();
+			try {
+				creator.createPreparedStatement(connection(values));
+				Object[] phones = (Object[]) values.get(1);
+				Object[] emails = (Object[]) values.get(2);
+				for (int i = 0; i < phones.length; i++) {
+					LeaderboardEntry row = row((String) phones[i], (String) emails[i]);
+					if (row != null) {
+						rowsRead++;
+						handler.processRow(resultSet(row));
+					}
+				}
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		LeaderboardRepository repository() {
+			return proxy(LeaderboardRepository.class, (method, args) -> {
+				if (method.equals("findAll") && args == null) {
+					synchronized (this) {
+						return new ArrayList<>(rows.values());
+					}
+				}
+				throw new UnsupportedOperationException(method);
+			});
+		}
+
+		private static Connection connection(Map<Integer, Object> values) {
+			return proxy(Connection.class, (method, args) -> switch (method) {
+				case "prepareStatement" -> statement(values);
+				case "createArrayOf" -> proxy(Array.class, (arrayMethod, arrayArgs) -> args[1]);
+				default -> throw new UnsupportedOperationException(method);
+			});
+		}
+
+		// Records every setXxx(index, value); arrays are recorded as their elements
+		private static PreparedStatement statement(Map<Integer, Object> values) {
+			return proxy(PreparedStatement.class, (method, args) -> {
+				if (!method.startsWith("set")) throw new UnsupportedOperationException(method);
+				Object value = args[1] instanceof Array array ? array.getArray() : args[1];
+				values.put((Integer) args[0], value);
+				return null;
+			});
+		}
+
+		private static ResultSet resultSet(LeaderboardEntry row) {
+			return proxy(ResultSet.class, (method, args) -> switch (method + " " + args[0]) {
+				case "getLong id" -> row.getId();
+				case "getLong time_taken_seconds" -> row.getTimeTakenMs();
+				case "getString phone_number" -> row.getPhoneNumber();
+				case "getString email" -> row.getEmail();
+				default -> throw new UnsupportedOperationException(method + " " + args[0]);
+			});
+		}
+
+		private interface Handler {
+			Object invoke(String method, Object[] args) throws Exception;
+		}
+
+		private static <T> T proxy(Class<T> type, Handler handler) {
+			return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+			                                        (proxy, method, args) -> handler.invoke(method.getName(), args)));
+		}
+	}
+}
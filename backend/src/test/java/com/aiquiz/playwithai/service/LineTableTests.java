@@ -0,0 +1,123 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The 512-entry line tables against the line-by-line scans they replaced
+ */
+class LineTableTests {
+
+	private static final int BOARDS = 19_683; // 3^9
+
+	private final AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(),
+	                                                  AiMetrics.standalone(), 0, 0);
+
+	@Test
+	void tablesMatchLineScansForEveryMask() {
+		for (int mask = 0; mask <= Position.FULL_MASK; mask++) {
+			assertEquals(scanIsWin(mask), Position.isWin(mask), "mask " + mask);
+			assertEquals(scanCompleting(mask), Position.completing(mask), "mask " + mask);
+		}
+	}
+
+	@Test
+	void winAndBlockChecksMatchOnEveryBoard() {
+		for (int board = 0; board < BOARDS; board++) {
+			int[] masks = masks(board);
+			// A game ends on its first line, so no check ever sees a board that already has one
+			if (scanIsWin(masks[0]) || scanIsWin(masks[1])) continue;
+			// Oldest first both ways round, so each side's vanishing mark differs between the two
+			for (boolean ascending : new boolean[] { true, false }) {
+				Position position = new Position(masks[0], masks[1], history(masks[0], ascending),
+				                                 history(masks[1], ascending), AiService.AI);
+				for (int side = 0; side < 2; side++) {
+					String where = "board " + board + (ascending ? " ascending" : " descending") + ", side " + side;
+					assertEquals(scanImmediateWinningMove(position, side), aiService.findImmediateWinningMove(position, side),
+					             where);
+					assertEquals(scanImmediateWinningMove(position, side ^ 1), aiService.findBlockingMove(position, side ^ 1),
+					             where);
+					int other = masks[side ^ 1];
+					assertEquals(scanWinningThreats(masks[side], other), aiService.countWinningThreats(masks[side], other),
+					             where);
+				}
+			}
+		}
+	}
+
+	private static int[] masks(int board) {
+		int[] masks = new int[2];
+		for (int cell = 0; cell < Position.BOARD_SIZE; cell++, board /= 3) {
+			int mark = board % 3;
+			if (mark != 0) masks[mark - 1] |= 1 << cell;
+		}
+		return masks;
+	}
+
+	private static List<Integer> history(int mask, boolean ascending) {
+		List<Integer> moves = new ArrayList<>();
+		for (int cell = 0; cell < Position.BOARD_SIZE; cell++) {
+			if ((mask & (1 << cell)) != 0) moves.add(ascending ? moves.size() : 0, cell);
+		}
+		return moves;
+	}
+
+	// The scans below are the implementations from before the tables
+
+	private static boolean scanIsWin(int mask) {
+		for (int line : Position.LINE_MASKS) {
+			if ((mask & line) == line) return true;
+		}
+		return false;
+	}
+
+	private static int scanCompleting(int mask) {
+		int cells = 0;
+		for (int line : Position.LINE_MASKS) {
+			int missing = line & ~mask;
+			if (missing != 0 && (missing & (missing - 1)) == 0) {
+				cells |= missing;
+			}
+		}
+		return cells;
+	}
+
+	private static int scanWinningThreats(int mask, int otherMask) {
+		int threatCount = 0;
+		for (int m = ~(mask | otherMask) & Position.FULL_MASK; m != 0; m &= m - 1) {
+			if (scanIsWin(mask | (m & -m))) {
+				threatCount++;
+			}
+		}
+		return threatCount;
+	}
+
+	private static int scanMaskAfter(Position position, int side, int cell) {
+		int placed = position.mask(side) | (1 << cell);
+		if (scanIsWin(placed)) return placed;
+		int vanished = position.nextToVanish(side);
+		return vanished == Position.NONE ? placed : placed & ~(1 << vanished);
+	}
+
+	private static int scanImmediateWinningMove(Position position, int side) {
+		int empty = position.empty();
+		for (int m = empty; m != 0; m &= m - 1) {
+			int move = Integer.numberOfTrailingZeros(m);
+			if (scanIsWin(position.mask(side) | (1 << move))) {
+				return move;
+			}
+		}
+		int other = position.mask(side ^ 1);
+		for (int m = empty; m != 0; m &= m - 1) {
+			int move = Integer.numberOfTrailingZeros(m);
+			if (scanWinningThreats(scanMaskAfter(position, side, move), other) >= 2) {
+				return move;
+			}
+		}
+		return -1;
+	}
+}
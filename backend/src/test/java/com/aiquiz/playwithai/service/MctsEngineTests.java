@@ -0,0 +1,81 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MctsEngineTests {
+
+	private static final int SIZE = 7;
+	private static final int WIN = 4;
+	private static final int PLAYOUTS = 3_000;
+
+	@Test
+	void classicBoardKeepsNoTrees() {
+		MctsEngine engine = engine(64, 1_000_000);
+		GridPosition position = GridPosition.of(new Position(0, 0, null, null, AiService.AI));
+
+		int move = engine.chooseMove(position, farDeadline(), new MctsEngine.Search());
+		assertTrue(position.isEmpty(move), "move " + move);
+		assertEquals(0, engine.keptNodes());
+	}
+
+	@Test
+	void keptNodesStayWithinTheBound() {
+		MctsEngine unbounded = engine(64, Long.MAX_VALUE);
+		play(unbounded, 3);
+		long kept = unbounded.keptNodes();
+		assertTrue(kept > 0, "kept " + kept);
+
+		MctsEngine bounded = engine(64, kept / 4);
+		play(bounded, 3);
+		assertTrue(bounded.keptNodes() <= kept / 4, "kept " + bounded.keptNodes());
+	}
+
+	@Test
+	void entryLimitAlsoBoundsTheNodes() {
+		MctsEngine engine = engine(1, Long.MAX_VALUE);
+		play(engine, 3);
+		MctsEngine many = engine(64, Long.MAX_VALUE);
+		play(many, 3);
+		assertTrue(engine.keptNodes() < many.keptNodes(), engine.keptNodes() + " vs " + many.keptNodes());
+	}
+
+	@Test
+	void restartMakesGamesReproducible() {
+		MctsEngine engine = engine(64, 1_000_000);
+		engine.restart(42);
+		List<Integer> first = play(engine, 4);
+		engine.restart(42);
+		assertEquals(first, play(engine, 4));
+	}
+
+	/**
+	 * The engine plays both sides from the empty board; the moves it chose
+	 */
+	private static List<Integer> play(MctsEngine engine, int turns) {
+		GridGeometry geometry = GridGeometry.of(SIZE, WIN);
+		GridPosition position = new GridPosition(geometry, 0, new long[geometry.words], new long[geometry.words],
+		                                         null, null, AiService.AI);
+		List<Integer> moves = new ArrayList<>();
+		for (int turn = 0; turn < turns; turn++) {
+			int move = engine.chooseMove(position, farDeadline(), new MctsEngine.Search());
+			assertTrue(position.isEmpty(move), "move " + move);
+			moves.add(move);
+			position.make(move);
+		}
+		return moves;
+	}
+
+	private static MctsEngine engine(int reuseTrees, long reuseMaxNodes) {
+		return new MctsEngine("medium", 0, PLAYOUTS, 1.41, 1, reuseTrees, reuseMaxNodes);
+	}
+
+	private static long farDeadline() {
+		return System.nanoTime() + 60_000_000_000L;
+	}
+}
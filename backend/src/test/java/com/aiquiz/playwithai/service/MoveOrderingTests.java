@@ -0,0 +1,74 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class MoveOrderingTests {
+
+	private static final int DEPTH = 10;
+
+	@Test
+	void orderedSearchFindsTheSameMovesWithFewerNodesWithoutTable() {
+		assertFewerNodes(TranspositionTable::disabled);
+	}
+
+	// Each search gets a fresh table, so both start from the same (empty) contents
+	@Test
+	void orderedSearchFindsTheSameMovesWithFewerNodesWithFreshTable() {
+		assertFewerNodes(() -> new TranspositionTable(1 << 16));
+	}
+
+	// Ordered against the index order the search used before, same depth and positions
+	private void assertFewerNodes(Supplier<TranspositionTable> tables) {
+		List<Position> positions = positions();
+		assertTrue(positions.size() >= 50, positions.size() + " positions");
+		long orderedNodes = 0;
+		long indexNodes = 0;
+		for (Position position : positions) {
+			AiService.MoveResult ordered = service(tables.get()).searchToDepth(position.copy(), DEPTH, true);
+			AiService.MoveResult unordered = service(tables.get()).searchToDepth(position.copy(), DEPTH, false);
+			String label = Integer.toBinaryString(position.mask(AiService.AI)) + "/"
+			             + Integer.toBinaryString(position.mask(AiService.HUMAN));
+			assertEquals(unordered.moveIndex, ordered.moveIndex, "move for " + label);
+			assertEquals(unordered.score, ordered.score, "score for " + label);
+			orderedNodes += ordered.nodes;
+			indexNodes += unordered.nodes;
+		}
+		assertTrue(orderedNodes < indexNodes, orderedNodes + " nodes ordered, " + indexNodes + " in index order");
+	}
+
+	private static AiService service(TranspositionTable table) {
+		return new AiService(Tablebase.disabled(), table, AiMetrics.standalone(), 60_000, 60_000);
+	}
+
+	/**
+	 * Reachable positions with the AI to move, from a fixed seed; longer games include vanished marks
+	 */
+	private static List<Position> positions() {
+		Random random = new Random(11);
+		List<Position> positions = new ArrayList<>();
+		for (int game = 0; game < 80; game++) {
+			Position position = new Position(0, 0, null, null, AiService.AI);
+			int plies = 2 * random.nextInt(8);
+			for (int ply = 0; ply < plies && position.winner() == Position.NONE && position.empty() != 0; ply++) {
+				int empty = position.empty();
+				int skip = random.nextInt(Integer.bitCount(empty));
+				for (int i = 0; i < skip; i++) {
+					empty &= empty - 1;
+				}
+				position.make(Integer.numberOfTrailingZeros(empty));
+			}
+			if (position.winner() == Position.NONE && position.sideToMove() == AiService.AI) {
+				positions.add(position);
+			}
+		}
+		return positions;
+	}
+}
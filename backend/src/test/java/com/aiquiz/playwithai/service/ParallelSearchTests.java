@@ -0,0 +1,81 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelSearchTests {
+
+	private static final int DEPTH = 10;
+
+	private final List<AiService> services = new ArrayList<>();
+
+	@AfterEach
+	void shutdown() {
+		services.forEach(AiService::shutdown);
+	}
+
+	@Test
+	void parallelRootMatchesSerialWithoutTable() {
+		assertSameAsSerial(TranspositionTable::disabled);
+	}
+
+	// Each search gets a fresh table, so both start from the same (empty) contents
+	@Test
+	void parallelRootMatchesSerialWithFreshTable() {
+		assertSameAsSerial(() -> new TranspositionTable(1 << 16));
+	}
+
+	private void assertSameAsSerial(Supplier<TranspositionTable> tables) {
+		List<Position> positions = positions();
+		assertTrue(positions.size() >= 50, positions.size() + " positions");
+		for (Position position : positions) {
+			AiService.MoveResult serial = service(tables.get(), 1).searchToDepth(position.copy(), DEPTH);
+			AiService.MoveResult parallel = service(tables.get(), 4).searchToDepth(position.copy(), DEPTH);
+			String label = Integer.toBinaryString(position.mask(AiService.AI)) + "/"
+			             + Integer.toBinaryString(position.mask(AiService.HUMAN));
+			assertEquals(serial.moveIndex, parallel.moveIndex, "move for " + label);
+			assertEquals(serial.score, parallel.score, "score for " + label);
+			assertEquals(serial.depth, parallel.depth, "depth for " + label);
+		}
+	}
+
+	// Parallel from depth 2, so nearly every iteration splits the root
+	private AiService service(TranspositionTable table, int parallelism) {
+		AiService service = new AiService(Tablebase.disabled(), table, AiMetrics.standalone(), MctsEngine.disabled(),
+		                                  60_000, 60_000, parallelism, 2);
+		services.add(service);
+		return service;
+	}
+
+	/**
+	 * Reachable positions with the AI to move, from a fixed seed; longer games include vanished marks
+	 */
+	private static List<Position> positions() {
+		Random random = new Random(7);
+		List<Position> positions = new ArrayList<>();
+		for (int game = 0; game < 80; game++) {
+			Position position = new Position(0, 0, null, null, AiService.AI);
+			int plies = 2 * random.nextInt(8);
+			for (int ply = 0; ply < plies && position.winner() == Position.NONE && position.empty() != 0; ply++) {
+				int empty = position.empty();
+				int skip = random.nextInt(Integer.bitCount(empty));
+				for (int i = 0; i < skip; i++) {
+					empty &= empty - 1;
+				}
+				position.make(Integer.numberOfTrailingZeros(empty));
+			}
+			if (position.winner() == Position.NONE && position.sideToMove() == AiService.AI) {
+				positions.add(position);
+			}
+		}
+		return positions;
+	}
+}
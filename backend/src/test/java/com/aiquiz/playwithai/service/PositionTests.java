@@ -0,0 +1,122 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class PositionTests {
+
+	@Test
+	void fourthMarkMakesTheOldestVanish() {
+		Position position = new Position(0, 0, null, null, AiService.AI);
+		int[] moves = { 0, 4, 1, 8, 5, 3 };
+		for (int move : moves) {
+			assertEquals(Position.NONE, position.make(move));
+		}
+		assertEquals(0b100011, position.mask(AiService.AI));
+
+		// AI places its 4th mark (no line), so its oldest mark, cell 0, vanishes
+		assertEquals(0, position.make(6));
+		assertEquals(0b1100010, position.mask(AiService.AI));
+		assertEquals(3, position.count(AiService.AI));
+		assertEquals(1, position.queued(AiService.AI, 0));
+		assertEquals(6, position.queued(AiService.AI, 2));
+		assertEquals(AiService.HUMAN, position.sideToMove());
+	}
+
+	@Test
+	void winningFourthMarkDoesNotVanish() {
+		// AI 0, 1, 5 (oldest first), human 3, 4, 7: AI completes 0-1-2 with its 4th mark
+		Position position = new Position(0b100011, 0b10011000, List.of(0, 1, 5), List.of(3, 4, 7), AiService.AI);
+		assertEquals(Position.NONE, position.make(2));
+		assertEquals(0b100111, position.mask(AiService.AI));
+		assertEquals(AiService.AI, position.winner());
+	}
+
+	@Test
+	void unmakeRestoresVanishedMark() {
+		Position position = new Position(0b100011, 0b10011000, List.of(5, 0, 1), List.of(3, 4, 7), AiService.AI);
+		int[] before = snapshot(position);
+		int vanished = position.make(8);
+		assertEquals(5, vanished);
+		assertFalse((position.mask(AiService.AI) & (1 << 5)) != 0);
+
+		position.unmake(8, vanished);
+		assertArrayEquals(before, snapshot(position));
+	}
+
+	@Test
+	void makeUnmakeRoundTripsOnRandomGames() {
+		SplittableRandom random = new SplittableRandom(1);
+		int vanishings = 0;
+		for (int game = 0; game < 2_000; game++) {
+			Position position = new Position(0, 0, null, null, game % 2);
+			int plies = random.nextInt(1, 40);
+			int[] cells = new int[plies];
+			int[] vanished = new int[plies];
+			int[][] before = new int[plies][];
+			long[] hashes = new long[plies];
+			int played = 0;
+			while (played < plies && position.winner() == Position.NONE) {
+				before[played] = snapshot(position);
+				hashes[played] = position.hash();
+				int empty = position.empty();
+				int cell = nthBit(empty, random.nextInt(Integer.bitCount(empty)));
+				cells[played] = cell;
+				vanished[played] = position.make(cell);
+				if (vanished[played] != Position.NONE) {
+					vanishings++;
+				}
+				played++;
+			}
+			for (int i = played - 1; i >= 0; i--) {
+				position.unmake(cells[i], vanished[i]);
+				assertArrayEquals(before[i], snapshot(position), "game " + game + ", ply " + i);
+				assertEquals(hashes[i], position.hash(), "game " + game + ", ply " + i);
+			}
+		}
+		assertTrue(vanishings > 0, "random games should make marks vanish");
+	}
+
+	@Test
+	void copyIsIndependent() {
+		Position position = new Position(0, 0, null, null, AiService.AI);
+		position.make(4);
+		Position copy = position.copy();
+		copy.make(0);
+		assertEquals(1 << 4, position.mask(AiService.AI));
+		assertEquals(0, position.mask(AiService.HUMAN));
+		assertEquals(AiService.HUMAN, position.sideToMove());
+	}
+
+	/**
+	 * Everything make and unmake touch: masks, side to move and both queues oldest first
+	 */
+	private static int[] snapshot(Position position) {
+		int[] state = new int[3 + 2 * (1 + Position.MAX_MARKS)];
+		state[0] = position.mask(0);
+		state[1] = position.mask(1);
+		state[2] = position.sideToMove();
+		int next = 3;
+		for (int side = 0; side < 2; side++) {
+			state[next++] = position.count(side);
+			for (int i = 0; i < Position.MAX_MARKS; i++) {
+				state[next++] = i < position.count(side) ? position.queued(side, i) : -1;
+			}
+		}
+		return state;
+	}
+
+	private static int nthBit(int mask, int n) {
+		for (int i = 0; i < n; i++) {
+			mask &= mask - 1;
+		}
+		return Integer.numberOfTrailingZeros(mask);
+	}
+}
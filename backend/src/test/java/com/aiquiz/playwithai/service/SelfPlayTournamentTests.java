@@ -0,0 +1,41 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class SelfPlayTournamentTests {
+
+	@Test
+	void resultsDoNotDependOnTheThreadCount() throws Exception {
+		Map<String, String> options = Map.of("a", "medium", "b", "easy", "games", "24", "seed", "7");
+		assertSameResults(options);
+	}
+
+	@Test
+	void mctsResultsDoNotDependOnTheThreadCount() throws Exception {
+		Map<String, String> options = Map.of("a", "mcts:medium", "b", "easy", "games", "8", "seed", "3",
+		                                     "size", "5", "win", "4", "vanish", "8", "playouts", "300");
+		assertSameResults(options);
+	}
+
+	private static void assertSameResults(Map<String, String> options) throws Exception {
+		SelfPlayTournament.Result serial = run(options, 1);
+		SelfPlayTournament.Result parallel = run(options, 3);
+		assertEquals(Long.parseLong(options.get("games")), serial.games);
+		assertEquals(serial.games, parallel.games);
+		assertEquals(serial.aWins, parallel.aWins);
+		assertEquals(serial.bWins, parallel.bWins);
+		assertEquals(serial.draws, parallel.draws);
+		assertEquals(serial.plies, parallel.plies);
+	}
+
+	private static SelfPlayTournament.Result run(Map<String, String> options, int threads) throws Exception {
+		Map<String, String> withThreads = new HashMap<>(options);
+		withThreads.put("threads", String.valueOf(threads));
+		return SelfPlayTournament.run(new SelfPlayTournament.Config(withThreads));
+	}
+}
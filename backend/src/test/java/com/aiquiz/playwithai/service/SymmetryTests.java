@@ -0,0 +1,90 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class SymmetryTests {
+
+	@Test
+	void backUndoesCell() {
+		for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+			for (int cell = 0; cell < Position.BOARD_SIZE; cell++) {
+				assertEquals(cell, Symmetry.back(symmetry, Symmetry.cell(symmetry, cell)), "symmetry " + symmetry);
+				assertEquals(cell, Symmetry.cell(symmetry, Symmetry.back(symmetry, cell)), "symmetry " + symmetry);
+			}
+			assertEquals(-1, Symmetry.back(symmetry, -1));
+		}
+	}
+
+	@Test
+	void symmetriesAreDistinctAndMapLinesToLines() {
+		for (int a = 0; a < Symmetry.COUNT; a++) {
+			for (int b = a + 1; b < Symmetry.COUNT; b++) {
+				assertFalse(Arrays.equals(Symmetry.CELL[a], Symmetry.CELL[b]), a + " and " + b);
+			}
+			for (int line : Position.LINE_MASKS) {
+				assertTrue(Position.isWin(Symmetry.mask(a, line)), "symmetry " + a + " of line " + line);
+			}
+			for (int mask = 0; mask <= Position.FULL_MASK; mask++) {
+				assertEquals(Position.isWin(mask), Position.isWin(Symmetry.mask(a, mask)));
+			}
+		}
+	}
+
+	@Test
+	void symmetricPositionsShareCanonicalHash() {
+		SplittableRandom random = new SplittableRandom(4);
+		for (int i = 0; i < 2_000; i++) {
+			Position position = randomPosition(random);
+			long canonical = canonicalHash(position);
+			for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+				Position image = position.transformed(symmetry);
+				assertEquals(position.hash(symmetry), image.hash());
+				assertEquals(canonical, canonicalHash(image), "position " + i + ", symmetry " + symmetry);
+			}
+		}
+	}
+
+	@Test
+	void movesOnSymmetricPositionsAreSymmetric() {
+		AiService aiService = new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(),
+		                                    60_000, 60_000);
+		SplittableRandom random = new SplittableRandom(5);
+		for (int i = 0; i < 40; i++) {
+			Position position = randomPosition(random);
+			if (position.winner() != Position.NONE || position.sideToMove() != AiService.AI) continue;
+			int move = aiService.chooseMove(position, "medium", null).moveIndex;
+			for (int symmetry = 1; symmetry < Symmetry.COUNT; symmetry++) {
+				int mapped = aiService.chooseMove(position.transformed(symmetry), "medium", null).moveIndex;
+				assertEquals(Symmetry.cell(symmetry, move), mapped, "position " + i + ", symmetry " + symmetry);
+			}
+		}
+	}
+
+	private static long canonicalHash(Position position) {
+		return position.transformed(position.canonicalSymmetry()).hash();
+	}
+
+	/**
+	 * Position reached by up to 12 random plies from the empty board, vanishing included
+	 */
+	private static Position randomPosition(SplittableRandom random) {
+		Position position = new Position(0, 0, null, null, AiService.AI);
+		int plies = random.nextInt(2, 7) * 2;
+		for (int ply = 0; ply < plies && position.winner() == Position.NONE; ply++) {
+			int empty = position.empty();
+			int skip = random.nextInt(Integer.bitCount(empty));
+			for (int s = 0; s < skip; s++) {
+				empty &= empty - 1;
+			}
+			position.make(Integer.numberOfTrailingZeros(empty));
+		}
+		return position;
+	}
+}
@@ -0,0 +1,94 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TablebaseTests {
+
+	// Solving takes a fraction of a second, so every test gets a fresh table
+	private static Tablebase solved() throws IOException {
+		Path file = Files.createTempFile("endless-ttt", ".tb");
+		try {
+			Tablebase.write(file, TablebaseGenerator.solve());
+			return Tablebase.load(file);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void agreesWithMinimaxOnSampledPositions() throws IOException {
+		Tablebase tablebase = solved();
+		assertEquals(0, TablebaseGenerator.verify(tablebase, 2_000, 8, new Random(42)));
+		assertEquals(0, TablebaseGenerator.verify(tablebase, 300, 11, new Random(7)));
+	}
+
+	@Test
+	void bestMoveKeepsTheResult() throws IOException {
+		Tablebase tablebase = solved();
+		Random random = new Random(1);
+		for (int checked = 0; checked < 5_000; ) {
+			Position position = Tablebase.position(random.nextInt(Tablebase.SIZE));
+			if (position.winner() != Position.NONE) continue;
+			checked++;
+
+			int entry = tablebase.probe(position);
+			int move = tablebase.bestMove(position);
+			assertTrue(move >= 0 && (position.empty() & (1 << move)) != 0, "move " + move);
+			int side = position.sideToMove();
+			position.make(move);
+			if (position.winner() == side) {
+				assertEquals(Tablebase.WIN, Tablebase.result(entry));
+				assertEquals(1, Tablebase.distance(entry));
+				continue;
+			}
+			// The entry after the move is from the opponent's side: our win is their loss one ply sooner
+			int after = tablebase.probe(position);
+			switch (Tablebase.result(entry)) {
+				case Tablebase.WIN -> {
+					assertEquals(Tablebase.LOSS, Tablebase.result(after));
+					assertEquals(Tablebase.distance(entry) - 1, Tablebase.distance(after));
+				}
+				case Tablebase.DRAW -> assertEquals(Tablebase.DRAW, Tablebase.result(after));
+				default -> assertEquals(Tablebase.WIN, Tablebase.result(after));
+			}
+		}
+	}
+
+	@Test
+	void disabledTablebaseLeavesMovesToTheSearch() {
+		Tablebase tablebase = Tablebase.disabled();
+		Position position = new Position(0, 0, null, null, AiService.AI);
+		assertEquals(-1, tablebase.probe(position));
+		assertEquals(-1, tablebase.bestMove(position));
+	}
+
+	@Test
+	void rejectsFilesOfAnotherFormat() throws IOException {
+		Path file = Files.createTempFile("endless-ttt", ".tb");
+		try {
+			Files.write(file, new byte[Tablebase.HEADER_BYTES + Tablebase.SIZE]);
+			assertThrows(IllegalStateException.class, () -> Tablebase.load(file));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void indexRoundTrips() {
+		Random random = new Random(3);
+		for (int i = 0; i < 10_000; i++) {
+			int index = random.nextInt(Tablebase.SIZE);
+			Position position = Tablebase.position(index);
+			assertEquals(index, Tablebase.index(position));
+		}
+	}
+}
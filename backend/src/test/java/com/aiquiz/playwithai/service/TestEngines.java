@@ -0,0 +1,27 @@
+package com.aiquiz.playwithai.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AI engines for tests outside this package, which cannot override AiService's package-private search
+ */
+public final class TestEngines {
+
+	private TestEngines() {
+	}
+
+	/**
+	 * A plain engine whose searches throw IllegalStateException("search failed") while failing is set
+	 */
+	public static AiService failingWhen(AtomicBoolean failing) {
+		return new AiService(Tablebase.disabled(), TranspositionTable.disabled(), AiMetrics.standalone(), 150, 300) {
+			@Override
+			MoveResult chooseMove(Position requested, String difficulty, Long clientDeadlineMs, int maxDepth) {
+				if (failing.get()) {
+					throw new IllegalStateException("search failed");
+				}
+				return super.chooseMove(requested, difficulty, clientDeadlineMs, maxDepth);
+			}
+		};
+	}
+}
@@ -0,0 +1,78 @@
+package com.aiquiz.playwithai.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTests {
+
+	@Test
+	void storedEntryReadsBack() {
+		TranspositionTable table = new TranspositionTable(1024);
+		table.store(0x1234_5678_9ABC_DEF0L, -9_970, 7, TranspositionTable.UPPER, 8);
+		table.store(42L, 350, 2, TranspositionTable.EXACT, -1);
+
+		long data = table.probe(0x1234_5678_9ABC_DEF0L);
+		assertNotEquals(TranspositionTable.MISS, data);
+		assertEquals(-9_970, TranspositionTable.score(data));
+		assertEquals(7, TranspositionTable.depth(data));
+		assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(data));
+		assertEquals(8, TranspositionTable.move(data));
+
+		data = table.probe(42L);
+		assertEquals(350, TranspositionTable.score(data));
+		assertEquals(Position.NONE, TranspositionTable.move(data));
+		assertEquals(TranspositionTable.MISS, table.probe(43L));
+	}
+
+	@Test
+	void sameKeyIsOverwritten() {
+		TranspositionTable table = new TranspositionTable(4);
+		table.store(5L, 10, 3, TranspositionTable.LOWER, 1);
+		table.store(5L, 20, 6, TranspositionTable.EXACT, 2);
+		long data = table.probe(5L);
+		assertEquals(20, TranspositionTable.score(data));
+		assertEquals(2, TranspositionTable.move(data));
+	}
+
+	@Test
+	void fullBucketReplacesShallowestEntry() {
+		// Four entries are a single bucket, so every key competes for the same slots
+		TranspositionTable table = new TranspositionTable(4);
+		table.store(1L, 0, 9, TranspositionTable.EXACT, 0);
+		table.store(2L, 0, 2, TranspositionTable.EXACT, 0);
+		table.store(3L, 0, 8, TranspositionTable.EXACT, 0);
+		table.store(4L, 0, 7, TranspositionTable.EXACT, 0);
+		table.store(5L, 0, 5, TranspositionTable.EXACT, 0);
+
+		assertEquals(TranspositionTable.MISS, table.probe(2L));
+		assertNotEquals(TranspositionTable.MISS, table.probe(1L));
+		assertNotEquals(TranspositionTable.MISS, table.probe(5L));
+	}
+
+	@Test
+	void agedEntriesAreReplacedFirst() {
+		TranspositionTable table = new TranspositionTable(4);
+		table.store(1L, 0, 9, TranspositionTable.EXACT, 0);
+		for (int i = 0; i < 3; i++) {
+			table.newSearch();
+		}
+		table.store(2L, 0, 2, TranspositionTable.EXACT, 0);
+		table.store(3L, 0, 3, TranspositionTable.EXACT, 0);
+		table.store(4L, 0, 4, TranspositionTable.EXACT, 0);
+		table.store(5L, 0, 5, TranspositionTable.EXACT, 0);
+
+		// Depth 9 three generations old counts as 9 - 3 * 4 = -3, below the fresh depth 2
+		assertEquals(TranspositionTable.MISS, table.probe(1L));
+		assertNotEquals(TranspositionTable.MISS, table.probe(2L));
+	}
+
+	@Test
+	void disabledTableNeverHits() {
+		TranspositionTable table = TranspositionTable.disabled();
+		table.store(1L, 0, 9, TranspositionTable.EXACT, 0);
+		assertEquals(TranspositionTable.MISS, table.probe(1L));
+		assertEquals(0, table.capacity());
+	}
+}
@@ -5,6 +5,7 @@ import SoundButton from "./SoundButton";
 import { useSound } from "../contexts/SoundContext";
 import LeaderboardForm from "./LeaderboardForm";
 import LeaderboardDisplay from "./LeaderboardDisplay";
+import { encodeAiMoveToken } from "../utils/aiMoveToken";
 
 const API_URL = process.env.REACT_APP_API_URL || "http://localhost:8080";
 
@@ -304,13 +305,9 @@ function AIgame({ playerMark: initialPlayerMark, aiMark: initialAiMark, onQuit }
     setPendingAiMove(true);
 
     try {
-      const response = await axios.post(`${API_URL}/api/game/aiMove`, {
-        board: currentBoard,
-        currentPlayer: initialAiMark,
-        difficulty: "hard",
-        playerMoves: playerMoves,
-        aiMoves: currentAiMoves,
-      });
+      // GET with the whole state in the URL, so repeated positions are answered from cache
+      const token = encodeAiMoveToken(currentBoard, initialAiMark, "hard", currentAiMoves, playerMoves);
+      const response = await axios.get(`${API_URL}/api/game/aiMove/${token}`);
 
       const aiMoveIndex = response.data.moveIndex;
       const moveMade = response.data.moveMade;
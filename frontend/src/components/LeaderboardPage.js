@@ -7,6 +7,7 @@ import SoundButton from "./SoundButton";
 import { useSound } from "../contexts/SoundContext";
 
 const API_URL = process.env.REACT_APP_API_URL || "http://localhost:8080";
+const PAGE_SIZE = 50;
 
 function LeaderboardPage() {
     const navigate = useNavigate();
@@ -14,6 +15,8 @@ function LeaderboardPage() {
     const [leaderboard, setLeaderboard] = useState([]);
     const [isLoading, setIsLoading] = useState(true);
     const [error, setError] = useState("");
+    const [nextPage, setNextPage] = useState(null);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
 
     useEffect(() => {
         fetchLeaderboard();
@@ -22,8 +25,9 @@ function LeaderboardPage() {
     const fetchLeaderboard = async () => {
         setIsLoading(true);
         try {
-            const response = await axios.get(`${API_URL}/api/leaderboard/all`);
-            setLeaderboard(response.data);
+            const response = await axios.get(`${API_URL}/api/leaderboard/all`, { params: { limit: PAGE_SIZE } });
+            setLeaderboard(response.data.entries);
+            setNextPage(response.data.hasMore ? response.data : null);
             setError("");
         } catch (err) {
             console.error("Error fetching leaderboard:", err);
@@ -33,6 +37,23 @@ function LeaderboardPage() {
         }
     };
 
+    // Fetch the page after the last row shown
+    const fetchMore = async () => {
+        if (!nextPage) return;
+        setIsLoadingMore(true);
+        try {
+            const response = await axios.get(`${API_URL}/api/leaderboard/all`, {
+                params: { limit: PAGE_SIZE, afterTime: nextPage.nextAfterTime, afterId: nextPage.nextAfterId }
+            });
+            setLeaderboard((rows) => [...rows, ...response.data.entries]);
+            setNextPage(response.data.hasMore ? response.data : null);
+        } catch (err) {
+            console.error("Error fetching leaderboard:", err);
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
+
     // Format time as MM:SS.mmm
     const formatTime = (ms) => {
         const minutes = Math.floor(ms / 60000);
@@ -272,6 +293,17 @@ function LeaderboardPage() {
                                     );
                                 })
                             )}
+                            {nextPage && !isLoading && !error && (
+                                <div className="flex justify-center py-4">
+                                    <button
+                                        onClick={() => { playSound('buttonClick'); fetchMore(); }}
+                                        disabled={isLoadingMore}
+                                        className="px-6 py-3 bg-slate-700 text-white rounded-xl hover:bg-slate-600 transition-colors font-medium disabled:opacity-50"
+                                    >
+                                        {isLoadingMore ? "Loading..." : "Show more"}
+                                    </button>
+                                </div>
+                            )}
                         </div>
                     </div>
                 </div>
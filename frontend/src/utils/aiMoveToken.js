@@ -0,0 +1,35 @@
+// aiMoveToken - Packs a 3x3 game state into the URL-safe token of GET /api/game/aiMove/{token}
+// Same byte format as AiMoveToken.java: flags, then each side's marks oldest first, base64url
+
+const HARD = 1;
+const AI_PLAYS_O = 2;
+// Keep in step with AiMoveToken.ENGINE_VERSION; answers for other versions are not cacheable
+const ENGINE_VERSION = 1;
+const VERSION_SHIFT = 4;
+const MAX_MARKS = 3;
+
+// A side's marks in the order they were placed, as they stand on the board
+const queueOf = (board, mark, moves) => {
+  const queue = [];
+  for (let i = moves.length - 1; i >= 0 && queue.length < MAX_MARKS; i--) {
+    const cell = moves[i];
+    if (board[cell] === mark && !queue.includes(cell)) queue.unshift(cell);
+  }
+  // Marks the history has not caught up with yet are the newest
+  board.forEach((cell, index) => {
+    if (cell === mark && !queue.includes(index)) queue.push(index);
+  });
+  return queue.slice(-MAX_MARKS);
+};
+
+export const encodeAiMoveToken = (board, aiMark, difficulty, aiMoves, playerMoves) => {
+  const humanMark = aiMark === "X" ? "O" : "X";
+  const aiQueue = queueOf(board, aiMark, aiMoves);
+  const humanQueue = queueOf(board, humanMark, playerMoves);
+  const flags = (ENGINE_VERSION << VERSION_SHIFT) | (difficulty === "hard" ? HARD : 0) | (aiMark === "O" ? AI_PLAYS_O : 0);
+  const bytes = [flags, aiQueue.length, ...aiQueue, humanQueue.length, ...humanQueue];
+  return btoa(String.fromCharCode(...bytes))
+    .replace(/\+/g, "-")
+    .replace(/\//g, "_")
+    .replace(/=+$/, "");
+};